@@ -0,0 +1,129 @@
+package com.cengizb.fingerprintdialog;
+
+import android.content.Context;
+import android.support.test.InstrumentationRegistry;
+import android.support.test.runner.AndroidJUnit4;
+import android.util.Log;
+import android.view.ContextThemeWrapper;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.widget.TextView;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Created by cengizb on 18.10.2026
+ * <p>
+ * Compares {@link FingerprintDialogLayout} with the nested layout it replaced: geometry of every
+ * child must be the same, and cost of measure/layout after a status text change is logged.
+ *
+ * @author <a href="https://github.com/cengizbayrak">cengizb</a>
+ */
+@RunWith(AndroidJUnit4.class)
+public class DialogLayoutBenchmark {
+    private static final String TAG = "DialogLayoutBenchmark";
+
+    private static final int WARM_UP_RUNS = 200;
+    private static final int MEASURED_RUNS = 2000;
+
+    private static final int[] CHILD_IDS = {
+            R.id.app_icon_iv, R.id.title_tv, R.id.subtitle_tv, R.id.description_tv,
+            R.id.fingerprint_symbol_iv, R.id.fingerprint_status_tv, R.id.negative_btn};
+
+    @Test
+    public void sameGeometry() {
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                final View flat = inflate(R.layout.fingerprint_compat_dialog);
+                final View nested = inflate(nestedLayout());
+                measureAndLayout(flat);
+                measureAndLayout(nested);
+
+                assertEquals(nested.getMeasuredHeight(), flat.getMeasuredHeight());
+                for (int id : CHILD_IDS) {
+                    final String name = flat.getResources().getResourceEntryName(id);
+                    assertTrue(name, Arrays.equals(bounds(nested, id), bounds(flat, id)));
+                }
+            }
+        });
+    }
+
+    @Test
+    public void measureAndLayoutOnStatusChange() {
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                final long nested = measure(inflate(nestedLayout()));
+                final long flat = measure(inflate(R.layout.fingerprint_compat_dialog));
+                Log.i(TAG, String.format(Locale.US,
+                        "measure+layout per status change: nested %d ns, flat %d ns", nested, flat));
+            }
+        });
+    }
+
+    /**
+     * @return median nanoseconds of a measure and layout pass after status text changed
+     */
+    private static long measure(final View root) {
+        final TextView status = root.findViewById(R.id.fingerprint_status_tv);
+        final long[] samples = new long[MEASURED_RUNS];
+        for (int run = 0; run < WARM_UP_RUNS + MEASURED_RUNS; run++) {
+            // like help messages, status text changes between one and two lines
+            status.setText(run % 2 == 0 ? "Finger moved too fast." : "Sensor is dirty,\nclean it.");
+            final long start = System.nanoTime();
+            measureAndLayout(root);
+            if (run >= WARM_UP_RUNS) samples[run - WARM_UP_RUNS] = System.nanoTime() - start;
+        }
+        Arrays.sort(samples);
+        return samples[MEASURED_RUNS / 2];
+    }
+
+    private static void measureAndLayout(final View root) {
+        final int width = root.getResources().getDisplayMetrics().widthPixels;
+        final int height = root.getResources().getDisplayMetrics().heightPixels;
+        // dialog window is full width and wraps content
+        root.measure(View.MeasureSpec.makeMeasureSpec(width, View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(height, View.MeasureSpec.AT_MOST));
+        root.layout(0, 0, root.getMeasuredWidth(), root.getMeasuredHeight());
+    }
+
+    /**
+     * @return left, top, right, bottom of the child relative to root
+     */
+    private static int[] bounds(final View root, final int id) {
+        final View child = root.findViewById(id);
+        int left = 0;
+        int top = 0;
+        for (View view = child; view != root; view = (View) view.getParent()) {
+            left += view.getLeft();
+            top += view.getTop();
+        }
+        return new int[]{left, top, left + child.getWidth(), top + child.getHeight()};
+    }
+
+    private static View inflate(final int layout) {
+        final Context context = new ContextThemeWrapper(InstrumentationRegistry.getContext(),
+                R.style.Theme_AppCompat_Light_Dialog);
+        final View root = LayoutInflater.from(context).inflate(layout, null, false);
+        ((TextView) root.findViewById(R.id.title_tv)).setText("Sign in");
+        ((TextView) root.findViewById(R.id.subtitle_tv)).setText("Confirm fingerprint to continue");
+        ((TextView) root.findViewById(R.id.description_tv))
+                .setText("Touch the fingerprint sensor to unlock your account.");
+        return root;
+    }
+
+    private static int nestedLayout() {
+        // layout of the test apk, looked up by name to not depend on its R class
+        final Context context = InstrumentationRegistry.getContext();
+        return context.getResources().getIdentifier("fingerprint_compat_dialog_nested", "layout",
+                context.getPackageName());
+    }
+}
@@ -0,0 +1,136 @@
+package com.cengizb.fingerprintdialog;
+
+import android.annotation.TargetApi;
+import android.os.Build;
+import android.security.keystore.KeyGenParameterSpec;
+import android.security.keystore.KeyProperties;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import java.io.IOException;
+import java.security.GeneralSecurityException;
+import java.security.KeyStore;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.crypto.Cipher;
+import javax.crypto.KeyGenerator;
+import javax.crypto.SecretKey;
+
+/**
+ * Created by cengizb on 18.10.2026
+ * <p>
+ * {@link KeyProvider} of AndroidKeyStore. Keys require user authentication.
+ * <p>
+ * Process wide cache of the loaded AndroidKeyStore, resolved key handles and ciphers.
+ * Provider lookups and key store loading are done once per process instead of once per dialog.
+ * Ciphers are pooled and re-initialized for every prompt instead of being created again.
+ *
+ * @author <a href="https://github.com/cengizbayrak">cengizb</a>
+ */
+@TargetApi(Build.VERSION_CODES.M)
+public final class AndroidKeyStoreProvider implements KeyProvider {
+    private static final String ANDROID_KEY_STORE = "AndroidKeyStore";
+
+    private static final AndroidKeyStoreProvider INSTANCE = new AndroidKeyStoreProvider();
+
+    // loaded key store
+    @Nullable
+    private KeyStore keyStore;
+
+    // resolved keys by alias
+    private final Map<String, SecretKey> keys = new HashMap<>();
+
+    // idle ciphers
+    private final CipherPool ciphers = new CipherPool();
+
+    private AndroidKeyStoreProvider() {
+        // singleton
+    }
+
+    /**
+     * @return process wide {@link AndroidKeyStoreProvider}
+     */
+    @NonNull
+    public static AndroidKeyStoreProvider getInstance() {
+        return INSTANCE;
+    }
+
+    @Nullable
+    @Override
+    public synchronized SecretKey getKey(@NonNull final String alias)
+            throws GeneralSecurityException, IOException {
+        SecretKey key = keys.get(alias);
+        if (key == null) {
+            key = (SecretKey) getKeyStore().getKey(alias, null);
+            if (key != null) keys.put(alias, key);
+        }
+        return key;
+    }
+
+    @NonNull
+    @Override
+    public SecretKey generateKey(@NonNull final String alias,
+                                 final int validitySeconds,
+                                 @CipherMode final int cipherMode)
+            throws GeneralSecurityException, IOException {
+        // key generator of the loaded key store provider, without looking up the provider again
+        final KeyGenerator keyGenerator = KeyGenerator.getInstance(KeyProperties.KEY_ALGORITHM_AES,
+                getKeyStore().getProvider());
+        final KeyGenParameterSpec.Builder builder = new KeyGenParameterSpec.Builder(alias,
+                KeyProperties.PURPOSE_ENCRYPT | KeyProperties.PURPOSE_DECRYPT)
+                .setBlockModes(CipherConfig.blockMode(cipherMode))
+                .setUserAuthenticationRequired(true)
+                .setEncryptionPaddings(CipherConfig.padding(cipherMode));
+        if (validitySeconds > 0) builder.setUserAuthenticationValidityDurationSeconds(validitySeconds);
+        keyGenerator.init(builder.build());
+
+        final SecretKey key = keyGenerator.generateKey();
+        synchronized (this) {
+            keys.put(alias, key);
+        }
+        return key;
+    }
+
+    @Override
+    public synchronized void deleteKey(@NonNull final String alias)
+            throws GeneralSecurityException, IOException {
+        keys.remove(alias);
+        final KeyStore keyStore = getKeyStore();
+        if (keyStore.containsAlias(alias)) keyStore.deleteEntry(alias);
+    }
+
+    @NonNull
+    @Override
+    public List<String> aliases() throws GeneralSecurityException, IOException {
+        return Collections.list(getKeyStore().aliases());
+    }
+
+    @NonNull
+    @Override
+    public Cipher acquireCipher(@CipherMode final int cipherMode) throws GeneralSecurityException {
+        return ciphers.acquire(CipherConfig.transformation(cipherMode));
+    }
+
+    @Override
+    public void releaseCipher(@NonNull final Cipher cipher) {
+        ciphers.release(cipher);
+    }
+
+    /**
+     * Get loaded key store. Key store is loaded only once per process.
+     *
+     * @return {@link KeyStore}
+     */
+    @NonNull
+    private synchronized KeyStore getKeyStore() throws GeneralSecurityException, IOException {
+        if (keyStore == null) {
+            final KeyStore keyStore = KeyStore.getInstance(ANDROID_KEY_STORE);
+            keyStore.load(null);
+            this.keyStore = keyStore;
+        }
+        return keyStore;
+    }
+}
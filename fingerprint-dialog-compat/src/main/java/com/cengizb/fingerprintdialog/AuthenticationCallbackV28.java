@@ -4,6 +4,9 @@ import android.annotation.TargetApi;
 import android.hardware.biometrics.BiometricPrompt;
 import android.os.Build;
 import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import javax.crypto.Cipher;
 
 /**
  * Created by cengizb on 30.05.2019
@@ -22,13 +25,22 @@ class AuthenticationCallbackV28 extends BiometricPrompt.AuthenticationCallback {
     @NonNull
     private final AuthenticationCallback callback;
 
+    /**
+     * Cipher unlocked by the authentication, null if authentication does not use one.
+     */
+    @Nullable
+    private final Cipher cipher;
+
     /**
      * Public constructor.
      *
      * @param callback {@link AuthenticationCallback} to fire events for fingerprint authentication.
+     * @param cipher   cipher of the {@link BiometricPrompt.CryptoObject}, or null
      */
-    AuthenticationCallbackV28(@NonNull final AuthenticationCallback callback) {
+    AuthenticationCallbackV28(@NonNull final AuthenticationCallback callback,
+                              @Nullable final Cipher cipher) {
         this.callback = callback;
+        this.cipher = cipher;
     }
 
     /**
@@ -38,6 +50,11 @@ class AuthenticationCallbackV28 extends BiometricPrompt.AuthenticationCallback {
     public void onAuthenticationError(final int code, final CharSequence error) {
         super.onAuthenticationError(code, error);
 
+        AuthenticationMetrics.getInstance().recordError(code);
+
+        // authentication is over, cipher is not unlocked
+        if (cipher != null) FingerprintKeyManager.releaseCipher(cipher);
+
         switch (code) {
             // fingerprint scan is canceled by negative/cancel button
             case BiometricPrompt.BIOMETRIC_ERROR_USER_CANCELED:
@@ -76,6 +93,7 @@ class AuthenticationCallbackV28 extends BiometricPrompt.AuthenticationCallback {
     public void onAuthenticationHelp(final int code, final CharSequence help) {
         super.onAuthenticationHelp(code, help);
 
+        AuthenticationMetrics.getInstance().recordHelp(code);
         callback.onAuthenticationHelp(code, help);
     }
 
@@ -86,6 +104,6 @@ class AuthenticationCallbackV28 extends BiometricPrompt.AuthenticationCallback {
     public void onAuthenticationSucceeded(final BiometricPrompt.AuthenticationResult result) {
         super.onAuthenticationSucceeded(result);
 
-        callback.onAuthenticationSucceeded();
+        Callbacks.notifySucceeded(callback, cipher);
     }
 }
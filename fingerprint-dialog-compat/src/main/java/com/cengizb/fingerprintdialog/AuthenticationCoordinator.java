@@ -0,0 +1,257 @@
+package com.cengizb.fingerprintdialog;
+
+import android.hardware.fingerprint.FingerprintManager;
+import android.support.annotation.MainThread;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Created by cengizb on 18.10.2026
+ * <p>
+ * Coalesces concurrent authentications of the process into a single flight.
+ * <p>
+ * First {@link FingerprintDialogBuilder#show(android.support.v4.app.FragmentManager, AuthenticationCallback)}
+ * starts a flight, which displays one dialog, prepares one cipher and arms the sensor once.
+ * Authentications requested with the same key and mode while the flight is running subscribe to
+ * it instead, e.g. on a double tap, and the events of the flight are delivered to every
+ * subscriber. Subscriber which cancels its {@link AuthenticationSession} or times out leaves the
+ * flight; the dialog is dismissed once the last subscriber leaves. Outcome of the flight is traced
+ * and counted in {@link AuthenticationMetrics} once, with the trace of the subscriber which
+ * started it.
+ * <p>
+ * Only one cipher is unlocked by a flight. It is handed to the first subscriber which wants it,
+ * other subscribers are notified by {@link AuthenticationCallback#onAuthenticationSucceeded()}.
+ * All methods must be called on the main thread.
+ *
+ * @author <a href="https://github.com/cengizbayrak">cengizb</a>
+ */
+@SuppressWarnings("deprecation")
+final class AuthenticationCoordinator {
+
+    // running flight, null if there is none
+    @Nullable
+    private static Flight flight;
+
+    private AuthenticationCoordinator() {
+        // no instance
+    }
+
+    /**
+     * Subscribe to the running flight of the configuration, or start a new one.
+     *
+     * @param config   {@link CipherConfig} of the authentication
+     * @param callback {@link AuthenticationCallback} of the subscriber
+     * @param session  {@link AuthenticationSession} of the subscriber
+     * @param trace    {@link AuthenticationTrace} of the subscriber, it traces the flight if the
+     *                 subscriber starts it
+     * @return {@link Flight} started by the subscriber, which must display its dialog, or null if
+     * the subscriber joined the running flight
+     */
+    @MainThread
+    @Nullable
+    static Flight join(@NonNull final CipherConfig config,
+                       @NonNull final AuthenticationCallback callback,
+                       @NonNull final AuthenticationSession session,
+                       @NonNull final AuthenticationTrace trace) {
+        // flight whose dialog is gone without a result is never joined
+        final Flight running = flight;
+        if (running != null && running.session.isActive() && running.config.equals(config)) {
+            running.subscribe(callback, session);
+            return null;
+        }
+
+        final Flight started = new Flight(config, trace);
+        started.subscribe(callback, session);
+        flight = started;
+        return started;
+    }
+
+    /**
+     * Forget the flight, authentications requested later start a new one.
+     *
+     * @param finished {@link Flight} which is over
+     */
+    @MainThread
+    static void leave(@NonNull final Flight finished) {
+        if (flight == finished) flight = null;
+    }
+
+    /**
+     * Authentication shared by its subscribers.
+     */
+    static final class Flight {
+        @NonNull
+        private final CipherConfig config;
+
+        // session of the dialog, canceled once the last subscriber leaves
+        @NonNull
+        private final AuthenticationSession session = new AuthenticationSession(0);
+
+        // records the outcome of the flight once, then delivers it to every subscriber
+        @NonNull
+        private final TracingCallback tracing;
+
+        // callback of the dialog
+        @NonNull
+        private final AuthenticationCallback callback;
+
+        private final List<AuthenticationCallback> subscribers = new ArrayList<>();
+
+        private Flight(@NonNull final CipherConfig config, @NonNull final AuthenticationTrace trace) {
+            this.config = config;
+            this.tracing = new TracingCallback(new FanOutCallback(), trace);
+            this.callback = session.wrap(tracing);
+        }
+
+        /**
+         * @return {@link AuthenticationCallback} to display the dialog with
+         */
+        @NonNull
+        AuthenticationCallback getCallback() {
+            return callback;
+        }
+
+        /**
+         * @return {@link AuthenticationSession} of the dialog
+         */
+        @NonNull
+        AuthenticationSession getSession() {
+            return session;
+        }
+
+        /**
+         * Forget the flight, e.g. its dialog could not be displayed.
+         */
+        @MainThread
+        void abandon() {
+            leave(this);
+            session.cancel();
+        }
+
+        private void subscribe(@NonNull final AuthenticationCallback subscriber,
+                               @NonNull final AuthenticationSession subscriberSession) {
+            subscribers.add(subscriber);
+            subscriberSession.setCanceller(new AuthenticationSession.Canceller() {
+                @Override
+                public void cancel() {
+                    unsubscribe(subscriber,
+                            subscriberSession.getState() == SessionState.TIMED_OUT);
+                }
+            });
+        }
+
+        private void unsubscribe(@NonNull final AuthenticationCallback subscriber,
+                                 final boolean isTimedOut) {
+            subscribers.remove(subscriber);
+            if (subscribers.isEmpty()) {
+                abandon();
+                // flight timed out with its last subscriber, which is notified by its session
+                if (isTimedOut) {
+                    tracing.onAuthenticationError(FingerprintManager.FINGERPRINT_ERROR_TIMEOUT, null);
+                }
+            }
+        }
+
+        /**
+         * @return true if any subscriber wants the unlocked cipher
+         */
+        private boolean wantsCipher() {
+            for (AuthenticationCallback subscriber : subscribers) {
+                if (Callbacks.wantsCipher(subscriber)) return true;
+            }
+            return false;
+        }
+
+        /**
+         * @return subscribers to notify, the flight is over if the event is final
+         */
+        @NonNull
+        private List<AuthenticationCallback> subscribers(final boolean isFinal) {
+            final List<AuthenticationCallback> snapshot = new ArrayList<>(subscribers);
+            if (isFinal) {
+                leave(this);
+                subscribers.clear();
+            }
+            return snapshot;
+        }
+
+        /**
+         * Delivers events of the dialog to every subscriber.
+         */
+        final class FanOutCallback implements CryptoAuthenticationCallback {
+
+            /**
+             * @return true if any subscriber wants the unlocked cipher
+             */
+            boolean wantsCipher() {
+                return Flight.this.wantsCipher();
+            }
+
+            @Override
+            public void fingerprintAuthenticationNotSupported() {
+                for (AuthenticationCallback subscriber : subscribers(true)) {
+                    subscriber.fingerprintAuthenticationNotSupported();
+                }
+            }
+
+            @Override
+            public void noEnrolledFingerprints() {
+                for (AuthenticationCallback subscriber : subscribers(true)) {
+                    subscriber.noEnrolledFingerprints();
+                }
+            }
+
+            @Override
+            public void authenticationCanceledByUser() {
+                for (AuthenticationCallback subscriber : subscribers(true)) {
+                    subscriber.authenticationCanceledByUser();
+                }
+            }
+
+            @Override
+            public void onAuthenticationError(final int code, @Nullable final CharSequence error) {
+                for (AuthenticationCallback subscriber : subscribers(true)) {
+                    subscriber.onAuthenticationError(code, error);
+                }
+            }
+
+            @Override
+            public void onAuthenticationHelp(final int code, @Nullable final CharSequence help) {
+                for (AuthenticationCallback subscriber : subscribers(false)) {
+                    subscriber.onAuthenticationHelp(code, help);
+                }
+            }
+
+            @Override
+            public void onAuthenticationFailed() {
+                for (AuthenticationCallback subscriber : subscribers(false)) {
+                    subscriber.onAuthenticationFailed();
+                }
+            }
+
+            @Override
+            public void onAuthenticationSucceeded() {
+                for (AuthenticationCallback subscriber : subscribers(true)) {
+                    subscriber.onAuthenticationSucceeded();
+                }
+            }
+
+            @Override
+            public void onAuthenticationSucceeded(@NonNull final CipherStream cipher) {
+                CipherStream unclaimed = cipher;
+                for (AuthenticationCallback subscriber : subscribers(true)) {
+                    if (unclaimed != null && Callbacks.wantsCipher(subscriber)) {
+                        ((CryptoAuthenticationCallback) subscriber).onAuthenticationSucceeded(unclaimed);
+                        unclaimed = null;
+                    } else {
+                        subscriber.onAuthenticationSucceeded();
+                    }
+                }
+                if (unclaimed != null) unclaimed.release();
+            }
+        }
+    }
+}
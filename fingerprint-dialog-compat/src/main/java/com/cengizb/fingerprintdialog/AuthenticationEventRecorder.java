@@ -0,0 +1,227 @@
+package com.cengizb.fingerprintdialog;
+
+import android.os.SystemClock;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FilenameFilter;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Created by cengizb on 18.10.2026
+ * <p>
+ * Optional recorder of authentication events for diagnostics, e.g. when user reports that
+ * fingerprint is slow or broken.
+ * <p>
+ * Every phase, sensor event and outcome is written into a fixed size ring buffer of primitive
+ * arrays, so recording does not allocate. When recorder is not enabled, recording costs a single
+ * volatile read. Buffer can be dumped into a compact binary file, dumps are rotated. Dumps are
+ * read back by {@link EventDumpDecoder}, which also runs on the JVM.
+ *
+ * @author <a href="https://github.com/cengizbayrak">cengizb</a>
+ */
+@SuppressWarnings("WeakerAccess")
+public final class AuthenticationEventRecorder {
+    /**
+     * Event types. Code of the event is the {@link AuthenticationPhase} for {@link #EVENT_PHASE},
+     * error or help code for {@link #EVENT_ERROR} and {@link #EVENT_HELP}, 0 otherwise.
+     */
+    public static final int EVENT_PHASE = 1;
+    public static final int EVENT_ERROR = 2;
+    public static final int EVENT_HELP = 3;
+    public static final int EVENT_FAILED = 4;
+    public static final int EVENT_SUCCEEDED = 5;
+    public static final int EVENT_CANCELED = 6;
+    public static final int EVENT_NOT_SUPPORTED = 7;
+    public static final int EVENT_NO_ENROLLED = 8;
+
+    /**
+     * Backends of the events.
+     */
+    public static final int BACKEND_FINGERPRINT_MANAGER = 0;
+    public static final int BACKEND_BIOMETRIC_PROMPT = 1;
+
+    /**
+     * Default number of events kept.
+     */
+    public static final int DEFAULT_CAPACITY = 1024;
+
+    /**
+     * Default number of dump files kept.
+     */
+    public static final int DEFAULT_MAX_DUMPS = 4;
+
+    // dump file format
+    static final int MAGIC = 0x46504556; // "FPEV"
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 4 + 4 + 8 + 8 + 4;
+    static final int EVENT_SIZE = 8 + 4 + 4 + 1 + 1;
+    static final String DUMP_PREFIX = "fingerprint-events-";
+    static final String DUMP_SUFFIX = ".fpev";
+
+    @Nullable
+    private static volatile AuthenticationEventRecorder instance;
+
+    // ring buffer, one slot per event
+    private final long[] timestamps;
+    private final int[] sessions;
+    private final int[] codes;
+    private final byte[] types;
+    private final byte[] backends;
+
+    // number of events written so far
+    private long written;
+
+    private AuthenticationEventRecorder(final int capacity) {
+        timestamps = new long[capacity];
+        sessions = new int[capacity];
+        codes = new int[capacity];
+        types = new byte[capacity];
+        backends = new byte[capacity];
+    }
+
+    /**
+     * Start recording events into a new buffer. Events recorded before are dropped.
+     *
+     * @param capacity number of events kept, older events are overwritten
+     */
+    public static void enable(final int capacity) {
+        if (capacity <= 0) throw new IllegalArgumentException("Capacity must be positive.");
+        instance = new AuthenticationEventRecorder(capacity);
+    }
+
+    /**
+     * Stop recording and drop recorded events.
+     */
+    public static void disable() {
+        instance = null;
+    }
+
+    /**
+     * @return true if events are recorded
+     */
+    public static boolean isEnabled() {
+        return instance != null;
+    }
+
+    /**
+     * Write recorded events into a new dump file in the directory, e.g.
+     * {@link android.content.Context#getCacheDir()}. Oldest dumps are deleted so that at most
+     * maxDumps files are kept. Call it on a background thread.
+     *
+     * @param directory directory of the dumps
+     * @param maxDumps  number of dump files kept
+     * @return dump file, or null if recorder is not enabled
+     * @throws IOException if dump cannot be written
+     */
+    @Nullable
+    public static File dump(@NonNull final File directory, final int maxDumps) throws IOException {
+        final AuthenticationEventRecorder recorder = instance;
+        if (recorder == null) return null;
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Cannot create directory " + directory);
+        }
+
+        final ByteBuffer buffer = recorder.encode();
+        final long now = System.currentTimeMillis();
+        final File temp = new File(directory, DUMP_PREFIX + now + ".tmp");
+        final FileChannel channel = new FileOutputStream(temp).getChannel();
+        try {
+            while (buffer.hasRemaining()) channel.write(buffer);
+            channel.force(false);
+        } finally {
+            channel.close();
+        }
+
+        // zero padded time keeps names in the order of the dumps
+        final File dump = new File(directory,
+                DUMP_PREFIX + String.format(Locale.US, "%019d", now) + DUMP_SUFFIX);
+        if (!temp.renameTo(dump)) {
+            temp.delete();
+            throw new IOException("Cannot write " + dump);
+        }
+        rotate(directory, maxDumps);
+        return dump;
+    }
+
+    /**
+     * Record event if recorder is enabled.
+     *
+     * @param session id of the authentication
+     * @param type    type of the event
+     * @param code    code of the event
+     * @param backend backend of the authentication
+     */
+    static void record(final int session, final int type, final int code, final int backend) {
+        final AuthenticationEventRecorder recorder = instance;
+        if (recorder != null) {
+            recorder.write(session, type, code, backend, SystemClock.elapsedRealtimeNanos());
+        }
+    }
+
+    private synchronized void write(final int session,
+                                    final int type,
+                                    final int code,
+                                    final int backend,
+                                    final long timestamp) {
+        final int slot = (int) (written % timestamps.length);
+        timestamps[slot] = timestamp;
+        sessions[slot] = session;
+        codes[slot] = code;
+        types[slot] = (byte) type;
+        backends[slot] = (byte) backend;
+        written++;
+    }
+
+    /**
+     * Encode recorded events, oldest first.
+     *
+     * @return buffer ready to be read
+     */
+    @NonNull
+    private synchronized ByteBuffer encode() {
+        final int capacity = timestamps.length;
+        final int count = (int) Math.min(written, capacity);
+        final ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + count * EVENT_SIZE);
+        buffer.putInt(MAGIC)
+                .putInt(VERSION)
+                // wall clock and monotonic time of the dump, to place events in wall clock time
+                .putLong(System.currentTimeMillis())
+                .putLong(SystemClock.elapsedRealtimeNanos())
+                .putInt(count);
+        for (long i = written - count; i < written; i++) {
+            final int slot = (int) (i % capacity);
+            buffer.putLong(timestamps[slot])
+                    .putInt(sessions[slot])
+                    .putInt(codes[slot])
+                    .put(types[slot])
+                    .put(backends[slot]);
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    /**
+     * Delete oldest dumps in the directory so that at most maxDumps are kept.
+     */
+    private static void rotate(@NonNull final File directory, final int maxDumps) {
+        final File[] dumps = directory.listFiles(new FilenameFilter() {
+            @Override
+            public boolean accept(final File dir, final String name) {
+                return name.startsWith(DUMP_PREFIX) && name.endsWith(DUMP_SUFFIX);
+            }
+        });
+        if (dumps == null || dumps.length <= maxDumps) return;
+        Arrays.sort(dumps);
+        for (int i = 0; i < dumps.length - Math.max(0, maxDumps); i++) {
+            //noinspection ResultOfMethodCallIgnored
+            dumps[i].delete();
+        }
+    }
+}
@@ -0,0 +1,283 @@
+package com.cengizb.fingerprintdialog;
+
+import android.os.Looper;
+import android.support.annotation.MainThread;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Created by cengizb on 18.10.2026
+ * <p>
+ * Pending {@link AuthenticationOutcome} of an authentication started by
+ * {@link FingerprintDialogBuilder#authenticate(android.support.v4.app.FragmentManager, boolean)}.
+ * <p>
+ * Authentication runs while the application does other work, e.g. a network request, and the
+ * outcome is joined with it by {@link #addListener(Runnable, Executor)} or by a blocking
+ * {@link #get()} on a background thread. Outcome is delivered on the main thread, even if the
+ * builder has a {@link FingerprintDialogBuilder#callbackExecutor(Executor)}, so {@link #get()}
+ * must not be called on it before the future is done. Every result of the dialog completes the
+ * future, including the cancel button and back press of the compat dialog.
+ * <p>
+ * {@link #cancel(boolean)} cancels the {@link AuthenticationSession} of the future.
+ *
+ * @author <a href="https://github.com/cengizbayrak">cengizb</a>
+ */
+public final class AuthenticationFuture implements Future<AuthenticationOutcome> {
+
+    private final CountDownLatch done = new CountDownLatch(1);
+
+    // guarded by this
+    @Nullable
+    private AuthenticationOutcome outcome;
+    private boolean isCancelled = false;
+    private boolean isDone = false;
+    @Nullable
+    private List<Runnable> listeners = new ArrayList<>();
+
+    // session of the authentication, null until show returns
+    @Nullable
+    private volatile AuthenticationSession session;
+
+    /**
+     * Package private constructor.
+     */
+    AuthenticationFuture() {
+        // created by the builder
+    }
+
+    /**
+     * Create callback which completes the future.
+     *
+     * @param unlockCipher true to complete with the unlocked cipher
+     * @return {@link AuthenticationCallback} to show the dialog with
+     */
+    @NonNull
+    AuthenticationCallback callback(final boolean unlockCipher) {
+        return unlockCipher ? new CryptoOutcomeCallback() : new OutcomeCallback();
+    }
+
+    /**
+     * Set session of the authentication, once it is shown.
+     *
+     * @param session {@link AuthenticationSession}
+     */
+    @MainThread
+    void setSession(@NonNull final AuthenticationSession session) {
+        this.session = session;
+        session.setCancelListener(new Runnable() {
+            @Override
+            public void run() {
+                // session canceled by the application
+                complete(null, true);
+            }
+        });
+    }
+
+    /**
+     * @return {@link AuthenticationSession} of the authentication
+     */
+    @NonNull
+    public AuthenticationSession getSession() {
+        final AuthenticationSession session = this.session;
+        if (session == null) throw new IllegalStateException("Authentication is not shown yet.");
+        return session;
+    }
+
+    /**
+     * Run listener on the executor once the future is done, or immediately if it is done already.
+     *
+     * @param listener listener to run
+     * @param executor {@link Executor} to run the listener on
+     */
+    public void addListener(@NonNull final Runnable listener, @NonNull final Executor executor) {
+        final Runnable task = new Runnable() {
+            @Override
+            public void run() {
+                executor.execute(listener);
+            }
+        };
+        synchronized (this) {
+            if (listeners != null) {
+                listeners.add(task);
+                return;
+            }
+        }
+        task.run();
+    }
+
+    /**
+     * Cancel the authentication, see {@link AuthenticationSession#cancel()}.
+     *
+     * @param mayInterruptIfRunning not used, authentication is not run by a thread
+     * @return true if the future is canceled, false if it is done already
+     */
+    @Override
+    public boolean cancel(final boolean mayInterruptIfRunning) {
+        if (!complete(null, true)) return false;
+
+        final AuthenticationSession session = this.session;
+        if (session != null) {
+            LibraryExecutors.mainThread().post(new Runnable() {
+                @Override
+                public void run() {
+                    session.cancel();
+                }
+            });
+        }
+        return true;
+    }
+
+    @Override
+    public synchronized boolean isCancelled() {
+        return isCancelled;
+    }
+
+    @Override
+    public synchronized boolean isDone() {
+        return isDone;
+    }
+
+    /**
+     * Wait for the outcome. Must not be called on the main thread before the future is done.
+     *
+     * @return {@link AuthenticationOutcome}
+     * @throws CancellationException if the future is canceled
+     */
+    @NonNull
+    @Override
+    public AuthenticationOutcome get() throws InterruptedException {
+        checkNotBlockingMainThread();
+        done.await();
+        return outcome();
+    }
+
+    /**
+     * Wait for the outcome at most the given time. Must not be called on the main thread before
+     * the future is done.
+     *
+     * @return {@link AuthenticationOutcome}
+     * @throws CancellationException if the future is canceled
+     */
+    @NonNull
+    @Override
+    public AuthenticationOutcome get(final long timeout, @NonNull final TimeUnit unit)
+            throws InterruptedException, TimeoutException {
+        checkNotBlockingMainThread();
+        if (!done.await(timeout, unit)) throw new TimeoutException();
+        return outcome();
+    }
+
+    @NonNull
+    private synchronized AuthenticationOutcome outcome() {
+        if (isCancelled || outcome == null) throw new CancellationException();
+        return outcome;
+    }
+
+    private void checkNotBlockingMainThread() {
+        if (!isDone() && Looper.myLooper() == Looper.getMainLooper()) {
+            throw new IllegalStateException("Outcome is delivered on the main thread, it cannot wait for it.");
+        }
+    }
+
+    /**
+     * Complete the future and run its listeners.
+     *
+     * @param outcome   {@link AuthenticationOutcome}, or null if canceled
+     * @param cancelled true if canceled
+     * @return true if the future was not done before
+     */
+    private boolean complete(@Nullable final AuthenticationOutcome outcome, final boolean cancelled) {
+        final List<Runnable> listeners;
+        synchronized (this) {
+            if (isDone) return false;
+            this.outcome = outcome;
+            this.isCancelled = cancelled;
+            this.isDone = true;
+            listeners = this.listeners;
+            this.listeners = null;
+        }
+        done.countDown();
+        if (listeners != null) {
+            for (Runnable listener : listeners) {
+                listener.run();
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Completes the future with the outcome of the authentication.
+     */
+    private class OutcomeCallback implements AuthenticationCallback {
+        // fingerprints not recognised so far, callbacks are notified on one thread
+        int failedAttempts = 0;
+
+        void complete(@OutcomeType final int type,
+                      final int errorCode,
+                      @Nullable final CharSequence errorMessage,
+                      @Nullable final CipherStream cipher) {
+            final AuthenticationOutcome outcome = new AuthenticationOutcome(type, errorCode,
+                    errorMessage, cipher, failedAttempts);
+            if (!AuthenticationFuture.this.complete(outcome, false) && cipher != null) {
+                // future canceled, nobody takes the cipher
+                cipher.release();
+            }
+        }
+
+        @Override
+        public void fingerprintAuthenticationNotSupported() {
+            complete(OutcomeType.NOT_SUPPORTED, 0, null, null);
+        }
+
+        @Override
+        public void noEnrolledFingerprints() {
+            complete(OutcomeType.NO_ENROLLED, 0, null, null);
+        }
+
+        @Override
+        public void authenticationCanceledByUser() {
+            complete(OutcomeType.CANCELED_BY_USER, 0, null, null);
+        }
+
+        @Override
+        public void onAuthenticationError(final int code, @Nullable final CharSequence error) {
+            complete(OutcomeType.ERROR, code, error, null);
+        }
+
+        @Override
+        public void onAuthenticationHelp(final int code, @Nullable final CharSequence help) {
+            // sensor keeps scanning
+        }
+
+        @Override
+        public void onAuthenticationFailed() {
+            failedAttempts++;
+        }
+
+        @Override
+        public void onAuthenticationSucceeded() {
+            complete(OutcomeType.SUCCEEDED, 0, null, null);
+        }
+    }
+
+    /**
+     * Completes the future with the unlocked cipher on success.
+     */
+    private final class CryptoOutcomeCallback extends OutcomeCallback
+            implements CryptoAuthenticationCallback {
+
+        @Override
+        public void onAuthenticationSucceeded(@NonNull final CipherStream cipher) {
+            complete(OutcomeType.SUCCEEDED, 0, null, cipher);
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package com.cengizb.fingerprintdialog;
+
+import android.os.SystemClock;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Created by cengizb on 18.10.2026
+ * <p>
+ * Process wide counters of authentication events and latency histograms.
+ * <p>
+ * Every error and help code reported by the fingerprint service, failures and outcomes of
+ * authentications are counted. Time from show() to armed sensor and to result is recorded into
+ * histograms. Recording is lock free and does not allocate, events are recorded on the main
+ * thread while the sensor is running.
+ * <p>
+ * Metrics can be polled by {@link #snapshot(boolean)} or pushed to a {@link MetricsSink} by
+ * {@link #export(boolean)}.
+ *
+ * @author <a href="https://github.com/cengizbayrak">cengizb</a>
+ */
+@SuppressWarnings("WeakerAccess")
+public final class AuthenticationMetrics {
+    /**
+     * Largest error or help code counted on its own. Larger codes, e.g. vendor specific ones, are
+     * counted together.
+     */
+    public static final int MAX_CODE = 31;
+
+    // indexes of outcome counters
+    static final int OUTCOME_SUCCEEDED = 0;
+    static final int OUTCOME_FAILED = 1;
+    static final int OUTCOME_CANCELED = 2;
+    static final int OUTCOME_ERROR = 3;
+    static final int OUTCOME_NOT_SUPPORTED = 4;
+    static final int OUTCOME_NO_ENROLLED = 5;
+    private static final int OUTCOME_COUNT = 6;
+
+    private static final AuthenticationMetrics INSTANCE = new AuthenticationMetrics();
+
+    private final AtomicLongArray errors = new AtomicLongArray(MAX_CODE + 2);
+
+    private final AtomicLongArray helps = new AtomicLongArray(MAX_CODE + 2);
+
+    private final AtomicLongArray outcomes = new AtomicLongArray(OUTCOME_COUNT);
+
+    private final LatencyHistogram timeToArmed = new LatencyHistogram();
+
+    private final LatencyHistogram timeToResult = new LatencyHistogram();
+
+    @Nullable
+    private volatile MetricsSink sink;
+
+    private AuthenticationMetrics() {
+        // singleton
+    }
+
+    /**
+     * @return process wide {@link AuthenticationMetrics}
+     */
+    @NonNull
+    public static AuthenticationMetrics getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Set destination of {@link #export(boolean)}.
+     *
+     * @param sink {@link MetricsSink} or null to remove
+     */
+    public void setSink(@Nullable final MetricsSink sink) {
+        this.sink = sink;
+    }
+
+    /**
+     * Copy current metrics.
+     *
+     * @param reset true to reset metrics, next snapshot counts events after this one
+     * @return {@link MetricsSnapshot}
+     */
+    @NonNull
+    public MetricsSnapshot snapshot(final boolean reset) {
+        return new MetricsSnapshot(copy(errors, reset), copy(helps, reset), copy(outcomes, reset),
+                new MetricsSnapshot.Histogram(timeToArmed.copy(reset)),
+                new MetricsSnapshot.Histogram(timeToResult.copy(reset)),
+                SystemClock.elapsedRealtime());
+    }
+
+    /**
+     * Take snapshot and hand it to the {@link MetricsSink}. Nothing happens without a sink.
+     *
+     * @param reset true to reset metrics
+     * @see #snapshot(boolean)
+     */
+    public void export(final boolean reset) {
+        final MetricsSink sink = this.sink;
+        if (sink != null) sink.export(snapshot(reset));
+    }
+
+    void recordError(final int code) {
+        errors.incrementAndGet(indexOf(code));
+    }
+
+    void recordHelp(final int code) {
+        helps.incrementAndGet(indexOf(code));
+    }
+
+    void recordOutcome(final int outcome) {
+        outcomes.incrementAndGet(outcome);
+    }
+
+    void recordTimeToArmed(final long nanos) {
+        timeToArmed.record(nanos / 1000000);
+    }
+
+    void recordTimeToResult(final long nanos) {
+        timeToResult.record(nanos / 1000000);
+    }
+
+    /**
+     * @param code error or help code
+     * @return index of the counter of the code
+     */
+    static int indexOf(final int code) {
+        return code >= 0 && code <= MAX_CODE ? code : MAX_CODE + 1;
+    }
+
+    /**
+     * Copy counters one by one.
+     *
+     * @param counters counters to copy
+     * @param reset    true to reset every copied counter to 0
+     * @return copy of the counters
+     */
+    @NonNull
+    static long[] copy(@NonNull final AtomicLongArray counters, final boolean reset) {
+        final long[] copy = new long[counters.length()];
+        for (int i = 0; i < copy.length; i++) {
+            copy[i] = reset ? counters.getAndSet(i, 0) : counters.get(i);
+        }
+        return copy;
+    }
+}
@@ -0,0 +1,108 @@
+package com.cengizb.fingerprintdialog;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+/**
+ * Created by cengizb on 18.10.2026
+ * <p>
+ * Final result of an authentication, completes {@link AuthenticationFuture}.
+ * <p>
+ * Fingerprints not recognised do not finish the authentication, sensor keeps scanning. They are
+ * counted by {@link #getFailedAttempts()} instead.
+ *
+ * @author <a href="https://github.com/cengizbayrak">cengizb</a>
+ */
+public final class AuthenticationOutcome {
+
+    @OutcomeType
+    private final int type;
+
+    private final int errorCode;
+
+    @Nullable
+    private final CharSequence errorMessage;
+
+    @Nullable
+    private final CipherStream cipher;
+
+    private final int failedAttempts;
+
+    /**
+     * Package private constructor.
+     *
+     * @param type           {@link OutcomeType}
+     * @param errorCode      code of the error, 0 unless type is {@link OutcomeType#ERROR}
+     * @param errorMessage   message of the error, or null
+     * @param cipher         unlocked cipher, or null
+     * @param failedAttempts number of fingerprints not recognised
+     */
+    AuthenticationOutcome(@OutcomeType final int type,
+                          final int errorCode,
+                          @Nullable final CharSequence errorMessage,
+                          @Nullable final CipherStream cipher,
+                          final int failedAttempts) {
+        this.type = type;
+        this.errorCode = errorCode;
+        this.errorMessage = errorMessage;
+        this.cipher = cipher;
+        this.failedAttempts = failedAttempts;
+    }
+
+    /**
+     * @return {@link OutcomeType} of the outcome
+     */
+    @OutcomeType
+    public int getType() {
+        return type;
+    }
+
+    /**
+     * @return true if user is authenticated
+     */
+    public boolean isSuccess() {
+        return type == OutcomeType.SUCCEEDED;
+    }
+
+    /**
+     * @return code of the error ({@link ErrorCode}) if type is {@link OutcomeType#ERROR}, 0 otherwise
+     */
+    public int getErrorCode() {
+        return errorCode;
+    }
+
+    /**
+     * @return message of the error, or null
+     */
+    @Nullable
+    public CharSequence getErrorMessage() {
+        return errorMessage;
+    }
+
+    /**
+     * Unlocked cipher of a successful authentication which asked for one, see
+     * {@link FingerprintDialogBuilder#authenticate(android.support.v4.app.FragmentManager, boolean)}.
+     * Release it with {@link CipherStream#release()} once it is not used anymore.
+     *
+     * @return {@link CipherStream} or null
+     */
+    @Nullable
+    public CipherStream getCipher() {
+        return cipher;
+    }
+
+    /**
+     * @return number of fingerprints not recognised before the outcome
+     */
+    public int getFailedAttempts() {
+        return failedAttempts;
+    }
+
+    @NonNull
+    @Override
+    public String toString() {
+        return "AuthenticationOutcome{type=" + type
+                + ", errorCode=" + errorCode
+                + ", failedAttempts=" + failedAttempts + '}';
+    }
+}
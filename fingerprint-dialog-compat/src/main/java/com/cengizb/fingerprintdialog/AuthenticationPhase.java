@@ -0,0 +1,69 @@
+package com.cengizb.fingerprintdialog;
+
+import android.support.annotation.IntDef;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+
+/**
+ * Created by cengizb on 18.10.2026
+ * <p>
+ * Phases of an authentication started by
+ * {@link FingerprintDialogBuilder#show(android.support.v4.app.FragmentManager, AuthenticationCallback)},
+ * in the order they are reached. A phase may be skipped, e.g. cipher is not initialized when
+ * authentication does not use one.
+ *
+ * @author <a href="https://github.com/cengizbayrak">cengizb</a>
+ * @see AuthenticationPhaseListener
+ */
+@Retention(RetentionPolicy.SOURCE)
+@IntDef({AuthenticationPhase.SHOW_CALLED,
+        AuthenticationPhase.CAPABILITIES_CHECKED,
+        AuthenticationPhase.CIPHER_READY,
+        AuthenticationPhase.VIEW_INFLATED,
+        AuthenticationPhase.SENSOR_ARMED,
+        AuthenticationPhase.FIRST_SENSOR_EVENT,
+        AuthenticationPhase.RESULT})
+public @interface AuthenticationPhase {
+
+    /**
+     * Application called show().
+     */
+    int SHOW_CALLED = 0;
+
+    /**
+     * API level, hardware and enrolled fingerprints are checked.
+     */
+    int CAPABILITIES_CHECKED = 1;
+
+    /**
+     * Key is generated if needed and cipher is initialized.
+     */
+    int CIPHER_READY = 2;
+
+    /**
+     * View of the compat dialog is created, or {@link android.hardware.biometrics.BiometricPrompt}
+     * is built.
+     */
+    int VIEW_INFLATED = 3;
+
+    /**
+     * Authentication is requested from the fingerprint service, sensor is armed.
+     */
+    int SENSOR_ARMED = 4;
+
+    /**
+     * First help, failure, success or error reported by the sensor.
+     */
+    int FIRST_SENSOR_EVENT = 5;
+
+    /**
+     * Final result is notified to the {@link AuthenticationCallback}.
+     */
+    int RESULT = 6;
+
+    /**
+     * Number of phases.
+     */
+    int COUNT = 7;
+}
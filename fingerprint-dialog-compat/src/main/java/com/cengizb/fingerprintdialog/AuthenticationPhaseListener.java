@@ -0,0 +1,33 @@
+package com.cengizb.fingerprintdialog;
+
+import android.support.annotation.MainThread;
+import android.support.annotation.NonNull;
+
+/**
+ * Created by cengizb on 18.10.2026
+ * <p>
+ * Listener of the phases of an authentication, e.g. to report time to armed sensor and time to
+ * result. Timestamps are {@link android.os.SystemClock#elapsedRealtimeNanos()}.
+ *
+ * @author <a href="https://github.com/cengizbayrak">cengizb</a>
+ * @see FingerprintDialogBuilder#phaseListener(AuthenticationPhaseListener)
+ */
+public interface AuthenticationPhaseListener {
+
+    /**
+     * This will notify, a phase is reached for the first time.
+     *
+     * @param phase          {@link AuthenticationPhase}
+     * @param timestampNanos time the phase is reached
+     */
+    @MainThread
+    void onPhase(@AuthenticationPhase final int phase, final long timestampNanos);
+
+    /**
+     * This will notify, {@link AuthenticationPhase#RESULT} is reached.
+     *
+     * @param timeline {@link AuthenticationTimeline} of all phases
+     */
+    @MainThread
+    void onTimeline(@NonNull final AuthenticationTimeline timeline);
+}
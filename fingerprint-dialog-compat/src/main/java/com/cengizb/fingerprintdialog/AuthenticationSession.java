@@ -0,0 +1,212 @@
+package com.cengizb.fingerprintdialog;
+
+import android.hardware.fingerprint.FingerprintManager;
+import android.support.annotation.MainThread;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+/**
+ * Created by cengizb on 18.10.2026
+ * <p>
+ * Handle of an authentication started by
+ * {@link FingerprintDialogBuilder#show(android.support.v4.app.FragmentManager, AuthenticationCallback)}.
+ * <p>
+ * Application can {@link #cancel()} the authentication, e.g. once the screen requesting it is
+ * left, and check its {@link SessionState}. Sensor is stopped, dialog is dismissed and the cipher
+ * is returned to the pool as soon as the session is canceled or its deadline expires. Callback is
+ * not notified after the application canceled the session.
+ *
+ * @author <a href="https://github.com/cengizbayrak">cengizb</a>
+ */
+@SuppressWarnings("deprecation")
+public final class AuthenticationSession {
+
+    /**
+     * Stops the dialog displaying the session.
+     */
+    interface Canceller {
+
+        /**
+         * Stop the sensor, release the cipher and dismiss the dialog without notifying the
+         * callback.
+         */
+        void cancel();
+    }
+
+    @SessionState
+    private volatile int state = SessionState.ACTIVE;
+
+    // callback of the session, null once the session is over
+    @Nullable
+    private SessionCallback callback;
+
+    // stops the dialog, null until the dialog is displayed
+    @Nullable
+    private Canceller canceller;
+
+    // notified once the application cancels the session
+    @Nullable
+    private Runnable cancelListener;
+
+    // expires the session once its deadline is reached
+    private final Runnable deadline = new Runnable() {
+        @Override
+        public void run() {
+            final SessionCallback callback = AuthenticationSession.this.callback;
+            if (close(SessionState.TIMED_OUT) && callback != null) {
+                callback.delegate.onAuthenticationError(
+                        FingerprintManager.FINGERPRINT_ERROR_TIMEOUT, null);
+            }
+        }
+    };
+
+    /**
+     * Package private constructor.
+     *
+     * @param timeoutMillis milliseconds until the session times out, or 0 for no deadline
+     */
+    @MainThread
+    AuthenticationSession(final long timeoutMillis) {
+        if (timeoutMillis > 0) LibraryExecutors.mainThread().postDelayed(deadline, timeoutMillis);
+    }
+
+    /**
+     * Wrap callback of the application, so the session follows its result.
+     *
+     * @param delegate {@link AuthenticationCallback} to notify
+     * @return callback to pass to the dialog
+     */
+    @NonNull
+    AuthenticationCallback wrap(@NonNull final AuthenticationCallback delegate) {
+        callback = new SessionCallback(delegate);
+        return callback;
+    }
+
+    /**
+     * Set how the dialog of the session is stopped. Dialog is stopped immediately if the session
+     * is over already.
+     *
+     * @param canceller {@link Canceller}
+     */
+    @MainThread
+    void setCanceller(@NonNull final Canceller canceller) {
+        if (isActive()) {
+            this.canceller = canceller;
+        } else {
+            canceller.cancel();
+        }
+    }
+
+    /**
+     * Set listener notified on the main thread once the application cancels the session.
+     *
+     * @param cancelListener listener, or null
+     */
+    @MainThread
+    void setCancelListener(@Nullable final Runnable cancelListener) {
+        this.cancelListener = cancelListener;
+    }
+
+    /**
+     * @return {@link SessionState} of the session
+     */
+    @SessionState
+    public int getState() {
+        return state;
+    }
+
+    /**
+     * @return true if the session is not over yet
+     */
+    public boolean isActive() {
+        return state == SessionState.ACTIVE;
+    }
+
+    /**
+     * Cancel the authentication. Sensor is stopped, dialog is dismissed and the cipher is
+     * released immediately; callback is not notified anymore. Nothing happens if the session is
+     * over already.
+     */
+    @MainThread
+    public void cancel() {
+        final Runnable cancelListener = this.cancelListener;
+        if (close(SessionState.CANCELED) && cancelListener != null) cancelListener.run();
+    }
+
+    /**
+     * Finish the session and release its dialog.
+     *
+     * @param state final {@link SessionState}
+     * @return true if the session was active
+     */
+    @MainThread
+    private boolean close(@SessionState final int state) {
+        if (!isActive()) return false;
+        this.state = state;
+        LibraryExecutors.mainThread().removeCallbacks(deadline);
+
+        final Canceller canceller = this.canceller;
+        this.canceller = null;
+        callback = null;
+        cancelListener = null;
+        if (canceller != null && state != SessionState.SUCCEEDED && state != SessionState.FAILED) {
+            canceller.cancel();
+        }
+        return true;
+    }
+
+    /**
+     * Follows the result of the session. Events are dropped once the application canceled the
+     * session or its deadline expired.
+     */
+    private final class SessionCallback extends ForwardingCallback {
+
+        SessionCallback(@NonNull final AuthenticationCallback delegate) {
+            super(delegate);
+        }
+
+        @Override
+        public void fingerprintAuthenticationNotSupported() {
+            if (close(SessionState.FAILED)) super.fingerprintAuthenticationNotSupported();
+        }
+
+        @Override
+        public void noEnrolledFingerprints() {
+            if (close(SessionState.FAILED)) super.noEnrolledFingerprints();
+        }
+
+        @Override
+        public void authenticationCanceledByUser() {
+            if (close(SessionState.FAILED)) super.authenticationCanceledByUser();
+        }
+
+        @Override
+        public void onAuthenticationError(final int code, @Nullable final CharSequence error) {
+            if (close(SessionState.FAILED)) super.onAuthenticationError(code, error);
+        }
+
+        @Override
+        public void onAuthenticationHelp(final int code, @Nullable final CharSequence help) {
+            if (isActive()) super.onAuthenticationHelp(code, help);
+        }
+
+        @Override
+        public void onAuthenticationFailed() {
+            if (isActive()) super.onAuthenticationFailed();
+        }
+
+        @Override
+        public void onAuthenticationSucceeded() {
+            if (close(SessionState.SUCCEEDED)) super.onAuthenticationSucceeded();
+        }
+
+        @Override
+        public void onAuthenticationSucceeded(@NonNull final CipherStream cipher) {
+            if (close(SessionState.SUCCEEDED)) {
+                super.onAuthenticationSucceeded(cipher);
+            } else {
+                cipher.release();
+            }
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.cengizb.fingerprintdialog;
+
+import android.support.annotation.NonNull;
+
+import java.util.Arrays;
+
+/**
+ * Created by cengizb on 18.10.2026
+ * <p>
+ * Immutable timestamps of the phases of one authentication. Timestamps are
+ * {@link android.os.SystemClock#elapsedRealtimeNanos()}.
+ *
+ * @author <a href="https://github.com/cengizbayrak">cengizb</a>
+ * @see AuthenticationPhaseListener
+ */
+@SuppressWarnings("WeakerAccess")
+public final class AuthenticationTimeline {
+    /**
+     * Timestamp of a phase which is not reached.
+     */
+    public static final long NOT_REACHED = -1;
+
+    // timestamp by phase
+    @NonNull
+    private final long[] timestamps;
+
+    private final boolean biometricPrompt;
+
+    AuthenticationTimeline(@NonNull final long[] timestamps, final boolean biometricPrompt) {
+        this.timestamps = timestamps.clone();
+        this.biometricPrompt = biometricPrompt;
+    }
+
+    /**
+     * @param phase {@link AuthenticationPhase}
+     * @return time the phase is reached, or {@link #NOT_REACHED}
+     */
+    public long getTimestampNanos(@AuthenticationPhase final int phase) {
+        return timestamps[phase];
+    }
+
+    /**
+     * @param phase {@link AuthenticationPhase}
+     * @return true if the phase is reached
+     */
+    public boolean hasReached(@AuthenticationPhase final int phase) {
+        return timestamps[phase] != NOT_REACHED;
+    }
+
+    /**
+     * Get time between two phases, e.g. {@link AuthenticationPhase#SHOW_CALLED} and
+     * {@link AuthenticationPhase#SENSOR_ARMED} for time to armed sensor.
+     *
+     * @param from {@link AuthenticationPhase} to measure from
+     * @param to   {@link AuthenticationPhase} to measure to
+     * @return nanoseconds between the phases, or {@link #NOT_REACHED} if any of them is not reached
+     */
+    public long getDurationNanos(@AuthenticationPhase final int from, @AuthenticationPhase final int to) {
+        if (!hasReached(from) || !hasReached(to)) return NOT_REACHED;
+        return timestamps[to] - timestamps[from];
+    }
+
+    /**
+     * @return true if authentication used {@link android.hardware.biometrics.BiometricPrompt},
+     * false if it used the compat dialog
+     */
+    public boolean isBiometricPrompt() {
+        return biometricPrompt;
+    }
+
+    @Override
+    public String toString() {
+        return "AuthenticationTimeline{timestamps=" + Arrays.toString(timestamps)
+                + ", biometricPrompt=" + biometricPrompt + '}';
+    }
+}
@@ -0,0 +1,112 @@
+package com.cengizb.fingerprintdialog;
+
+import android.os.Build;
+import android.os.SystemClock;
+import android.support.annotation.MainThread;
+import android.support.annotation.Nullable;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Created by cengizb on 18.10.2026
+ * <p>
+ * Records when the phases of one authentication are reached and notifies the
+ * {@link AuthenticationPhaseListener}. Only the first time of a phase is recorded. Phases and
+ * events are also written to {@link AuthenticationEventRecorder} if it is enabled.
+ *
+ * @author <a href="https://github.com/cengizbayrak">cengizb</a>
+ */
+@MainThread
+final class AuthenticationTrace {
+    // ids of the authentications of the process
+    private static final AtomicInteger ids = new AtomicInteger();
+
+    // id of the authentication in recorded events
+    private final int id = ids.incrementAndGet();
+
+    @Nullable
+    private final AuthenticationPhaseListener listener;
+
+    private final boolean biometricPrompt = Build.VERSION.SDK_INT >= Build.VERSION_CODES.P;
+
+    // timestamp by phase
+    private final long[] timestamps = new long[AuthenticationPhase.COUNT];
+
+    /**
+     * Package private constructor.
+     *
+     * @param listener {@link AuthenticationPhaseListener} to notify, or null
+     */
+    AuthenticationTrace(@Nullable final AuthenticationPhaseListener listener) {
+        this.listener = listener;
+        Arrays.fill(timestamps, AuthenticationTimeline.NOT_REACHED);
+    }
+
+    /**
+     * Record phase if it is not reached yet.
+     *
+     * @param phase {@link AuthenticationPhase}
+     */
+    void mark(@AuthenticationPhase final int phase) {
+        if (timestamps[phase] != AuthenticationTimeline.NOT_REACHED) return;
+        final long timestamp = SystemClock.elapsedRealtimeNanos();
+        timestamps[phase] = timestamp;
+        recordLatency(phase, timestamp);
+        record(AuthenticationEventRecorder.EVENT_PHASE, phase);
+
+        if (listener == null) return;
+        listener.onPhase(phase, timestamp);
+        if (phase == AuthenticationPhase.RESULT) {
+            listener.onTimeline(new AuthenticationTimeline(timestamps, biometricPrompt));
+        }
+    }
+
+    /**
+     * Write event of the authentication to {@link AuthenticationEventRecorder}.
+     *
+     * @param type type of the event, e.g. {@link AuthenticationEventRecorder#EVENT_ERROR}
+     * @param code code of the event
+     */
+    void record(final int type, final int code) {
+        AuthenticationEventRecorder.record(id, type, code, biometricPrompt
+                ? AuthenticationEventRecorder.BACKEND_BIOMETRIC_PROMPT
+                : AuthenticationEventRecorder.BACKEND_FINGERPRINT_MANAGER);
+    }
+
+    /**
+     * Record latency of the phase into {@link AuthenticationMetrics}.
+     *
+     * @param phase     {@link AuthenticationPhase}
+     * @param timestamp time the phase is reached
+     */
+    private void recordLatency(@AuthenticationPhase final int phase, final long timestamp) {
+        final long showCalled = timestamps[AuthenticationPhase.SHOW_CALLED];
+        if (showCalled == AuthenticationTimeline.NOT_REACHED) return;
+        if (phase == AuthenticationPhase.SENSOR_ARMED) {
+            AuthenticationMetrics.getInstance().recordTimeToArmed(timestamp - showCalled);
+        } else if (phase == AuthenticationPhase.RESULT) {
+            AuthenticationMetrics.getInstance().recordTimeToResult(timestamp - showCalled);
+        }
+    }
+
+    /**
+     * Record {@link AuthenticationPhase#FIRST_SENSOR_EVENT} if sensor is armed, events notified
+     * without the sensor (e.g. success within validity window) are not sensor events.
+     */
+    void markSensorEvent() {
+        if (timestamps[AuthenticationPhase.SENSOR_ARMED] != AuthenticationTimeline.NOT_REACHED) {
+            mark(AuthenticationPhase.FIRST_SENSOR_EVENT);
+        }
+    }
+
+    /**
+     * Record phase of a trace which may not exist.
+     *
+     * @param trace {@link AuthenticationTrace} or null
+     * @param phase {@link AuthenticationPhase}
+     */
+    static void mark(@Nullable final AuthenticationTrace trace, @AuthenticationPhase final int phase) {
+        if (trace != null) trace.mark(phase);
+    }
+}
@@ -0,0 +1,253 @@
+package com.cengizb.fingerprintdialog;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import java.security.GeneralSecurityException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import javax.crypto.BadPaddingException;
+import javax.crypto.Cipher;
+import javax.crypto.IllegalBlockSizeException;
+
+/**
+ * Created by cengizb on 18.10.2026
+ * <p>
+ * Decrypts a batch of {@link EncryptedSecret} with the cipher unlocked by one authentication.
+ * <p>
+ * Authentication unlocks a single cipher operation, so all secrets are decrypted in one pass:
+ * cipher texts are concatenated into one AES/CBC stream, initialized with the initialization
+ * vector of the first secret. In CBC mode every plain text block depends only on its cipher text
+ * block and the previous one, so the first block of every following secret is corrected with its
+ * own initialization vector, and its padding is removed here instead of by the cipher.
+ *
+ * @author <a href="https://github.com/cengizbayrak">cengizb</a>
+ */
+final class BatchUnlock implements CryptoAuthenticationCallback {
+    private static final int BLOCK_SIZE = 16;
+
+    @NonNull
+    private final List<EncryptedSecret> secrets;
+
+    @NonNull
+    private final BatchUnlockCallback callback;
+
+    // executor of the decrypted secrets, null to deliver them on the main thread
+    @Nullable
+    private final Executor executor;
+
+    /**
+     * Package private constructor.
+     *
+     * @param secrets  secrets to decrypt, all encrypted with the same key
+     * @param callback {@link BatchUnlockCallback} to notify
+     * @param executor {@link Executor} to deliver the decrypted secrets on, or null for the main
+     *                 thread, see {@link FingerprintDialogBuilder#callbackExecutor(Executor)}
+     */
+    BatchUnlock(@NonNull final List<EncryptedSecret> secrets,
+                @NonNull final BatchUnlockCallback callback,
+                @Nullable final Executor executor) {
+        if (secrets.isEmpty()) throw new IllegalArgumentException("No secrets to unlock.");
+        for (EncryptedSecret secret : secrets) {
+            final int length = secret.cipherText().length;
+            if (length == 0 || length % BLOCK_SIZE != 0 || secret.iv().length != BLOCK_SIZE) {
+                throw new IllegalArgumentException("Secret is not encrypted with AES/CBC.");
+            }
+        }
+        this.secrets = new ArrayList<>(secrets);
+        this.callback = callback;
+        this.executor = executor != null ? new SerialExecutor(executor) : null;
+    }
+
+    /**
+     * @return initialization vector the cipher must be initialized with
+     */
+    @NonNull
+    byte[] getIv() {
+        return secrets.get(0).iv();
+    }
+
+    @Override
+    public void onAuthenticationSucceeded(@NonNull final CipherStream cipher) {
+        // decrypt off the main thread, deliver secrets back on the callback executor
+        LibraryExecutors.background().execute(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    final List<byte[]> unlocked = decrypt(cipher.getCipher(), secrets, new Listener() {
+                        @Override
+                        public void onSecretUnlocked(final int index, @NonNull final byte[] secret) {
+                            deliver(new Runnable() {
+                                @Override
+                                public void run() {
+                                    callback.onSecretUnlocked(index, secret);
+                                }
+                            });
+                        }
+                    });
+                    deliver(new Runnable() {
+                        @Override
+                        public void run() {
+                            callback.onBatchUnlocked(unlocked);
+                        }
+                    });
+                } catch (final GeneralSecurityException e) {
+                    deliver(new Runnable() {
+                        @Override
+                        public void run() {
+                            callback.onBatchUnlockFailed(e);
+                        }
+                    });
+                } finally {
+                    cipher.release();
+                }
+            }
+        });
+    }
+
+    /**
+     * Run the delivery on the executor of the callback, in submission order.
+     *
+     * @param delivery notification of the callback
+     */
+    private void deliver(@NonNull final Runnable delivery) {
+        if (executor != null) {
+            executor.execute(delivery);
+        } else {
+            LibraryExecutors.mainThread().post(delivery);
+        }
+    }
+
+    @Override
+    public void onAuthenticationSucceeded() {
+        // cipher is not available, secrets cannot be decrypted
+        callback.onBatchUnlockFailed(new GeneralSecurityException("Cipher is not unlocked."));
+    }
+
+    @Override
+    public void fingerprintAuthenticationNotSupported() {
+        callback.fingerprintAuthenticationNotSupported();
+    }
+
+    @Override
+    public void noEnrolledFingerprints() {
+        callback.noEnrolledFingerprints();
+    }
+
+    @Override
+    public void authenticationCanceledByUser() {
+        callback.authenticationCanceledByUser();
+    }
+
+    @Override
+    public void onAuthenticationError(final int code, @Nullable final CharSequence error) {
+        callback.onAuthenticationError(code, error);
+    }
+
+    @Override
+    public void onAuthenticationHelp(final int code, @Nullable final CharSequence help) {
+        callback.onAuthenticationHelp(code, help);
+    }
+
+    @Override
+    public void onAuthenticationFailed() {
+        callback.onAuthenticationFailed();
+    }
+
+    /**
+     * Notified as soon as a secret is decrypted.
+     */
+    interface Listener {
+        void onSecretUnlocked(int index, @NonNull byte[] secret);
+    }
+
+    /**
+     * Decrypt secrets in one cipher operation.
+     *
+     * @param cipher   cipher initialized for decryption with the initialization vector of the
+     *                 first secret
+     * @param secrets  secrets to decrypt
+     * @param listener {@link Listener} to notify as soon as a secret is decrypted
+     * @return decrypted secrets
+     * @throws GeneralSecurityException if secrets cannot be decrypted
+     */
+    @NonNull
+    static List<byte[]> decrypt(@NonNull final Cipher cipher,
+                                @NonNull final List<EncryptedSecret> secrets,
+                                @NonNull final Listener listener) throws GeneralSecurityException {
+        final int count = secrets.size();
+        final int[] offsets = new int[count + 1];
+        for (int i = 0; i < count; i++) {
+            offsets[i + 1] = offsets[i] + secrets.get(i).cipherText().length;
+        }
+
+        final byte[] plainText = new byte[offsets[count]];
+        final List<byte[]> unlocked = new ArrayList<>(count);
+        int written = 0;
+        for (int i = 0; i < count; i++) {
+            final byte[] cipherText = secrets.get(i).cipherText();
+            written += cipher.update(cipherText, 0, cipherText.length, plainText, written);
+
+            // cipher holds back the last block, previous secrets are complete
+            while (unlocked.size() < i && offsets[unlocked.size() + 1] <= written) {
+                unlock(secrets, offsets, plainText, unlocked, listener);
+            }
+        }
+        written += cipher.doFinal(plainText, written);
+
+        // cipher removed padding of the last secret only
+        if (written < offsets[count - 1]) throw new BadPaddingException("Invalid padding.");
+        offsets[count] = written;
+        while (unlocked.size() < count) {
+            unlock(secrets, offsets, plainText, unlocked, listener);
+        }
+        Arrays.fill(plainText, (byte) 0);
+        return Collections.unmodifiableList(unlocked);
+    }
+
+    /**
+     * Extract next secret from the decrypted stream.
+     */
+    private static void unlock(@NonNull final List<EncryptedSecret> secrets,
+                               @NonNull final int[] offsets,
+                               @NonNull final byte[] plainText,
+                               @NonNull final List<byte[]> unlocked,
+                               @NonNull final Listener listener) throws GeneralSecurityException {
+        final int index = unlocked.size();
+        final int start = offsets[index];
+        int end = offsets[index + 1];
+
+        if (index > 0) {
+            // first block is chained to the previous secret, chain it to its own iv instead
+            final byte[] previous = secrets.get(index - 1).cipherText();
+            final byte[] iv = secrets.get(index).iv();
+            for (int i = 0; i < BLOCK_SIZE; i++) {
+                plainText[start + i] ^= previous[previous.length - BLOCK_SIZE + i] ^ iv[i];
+            }
+        }
+
+        if (index < secrets.size() - 1) end -= paddingLength(plainText, start, end);
+
+        final byte[] secret = Arrays.copyOfRange(plainText, start, end);
+        unlocked.add(secret);
+        listener.onSecretUnlocked(index, secret);
+    }
+
+    /**
+     * Get PKCS#7 padding length of a decrypted secret.
+     */
+    private static int paddingLength(@NonNull final byte[] plainText, final int start, final int end)
+            throws BadPaddingException, IllegalBlockSizeException {
+        if (end - start < BLOCK_SIZE) throw new IllegalBlockSizeException("Invalid block size.");
+        final int padding = plainText[end - 1] & 0xff;
+        if (padding == 0 || padding > BLOCK_SIZE) throw new BadPaddingException("Invalid padding.");
+        for (int i = end - padding; i < end; i++) {
+            if ((plainText[i] & 0xff) != padding) throw new BadPaddingException("Invalid padding.");
+        }
+        return padding;
+    }
+}
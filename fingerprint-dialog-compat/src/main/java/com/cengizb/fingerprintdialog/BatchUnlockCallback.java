@@ -0,0 +1,44 @@
+package com.cengizb.fingerprintdialog;
+
+import android.support.annotation.NonNull;
+
+import java.security.GeneralSecurityException;
+import java.util.List;
+
+/**
+ * Created by cengizb on 18.10.2026
+ * <p>
+ * Callback contract to get secrets decrypted by a single fingerprint authentication.
+ * <p>
+ * {@link #onSecretUnlocked(int, byte[])} and {@link #onBatchUnlocked(List)} are notified instead
+ * of {@link #onAuthenticationSucceeded()}.
+ *
+ * @author <a href="https://github.com/cengizbayrak">cengizb</a>
+ * @see FingerprintDialogBuilder#showBatchUnlock(android.support.v4.app.FragmentManager, List, BatchUnlockCallback)
+ */
+public interface BatchUnlockCallback extends AuthenticationCallback {
+
+    /**
+     * This will notify, a secret is decrypted. Secrets are notified in order, as soon as they are
+     * decrypted.
+     *
+     * @param index  index of the secret in the batch
+     * @param secret decrypted secret
+     */
+    void onSecretUnlocked(final int index, @NonNull final byte[] secret);
+
+    /**
+     * This will notify, every secret of the batch is decrypted.
+     *
+     * @param secrets decrypted secrets, in order of the batch
+     */
+    void onBatchUnlocked(@NonNull final List<byte[]> secrets);
+
+    /**
+     * This will notify, authentication is successful but secrets cannot be decrypted.
+     * e.g. a secret is not encrypted with the authentication key.
+     *
+     * @param e cause of the failure
+     */
+    void onBatchUnlockFailed(@NonNull final GeneralSecurityException e);
+}
@@ -0,0 +1,55 @@
+package com.cengizb.fingerprintdialog;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import javax.crypto.Cipher;
+
+/**
+ * Created by cengizb on 18.10.2026
+ * <p>
+ * Notifies {@link AuthenticationCallback} events shared by both dialogs.
+ *
+ * @author <a href="https://github.com/cengizbayrak">cengizb</a>
+ */
+final class Callbacks {
+
+    private Callbacks() {
+        // no instance
+    }
+
+    /**
+     * Check if callback gets the unlocked cipher. Callbacks wrapped by the library are checked
+     * by the callback of the application, callback of a coalesced authentication by its
+     * subscribers.
+     *
+     * @param callback {@link AuthenticationCallback}
+     * @return true if callback is a {@link CryptoAuthenticationCallback}
+     */
+    static boolean wantsCipher(@NonNull final AuthenticationCallback callback) {
+        if (callback instanceof ForwardingCallback) {
+            return wantsCipher(((ForwardingCallback) callback).delegate);
+        }
+        if (callback instanceof AuthenticationCoordinator.Flight.FanOutCallback) {
+            return ((AuthenticationCoordinator.Flight.FanOutCallback) callback).wantsCipher();
+        }
+        return callback instanceof CryptoAuthenticationCallback;
+    }
+
+    /**
+     * Notify successful authentication. Unlocked cipher is handed over to
+     * {@link CryptoAuthenticationCallback}, otherwise it is released.
+     *
+     * @param callback {@link AuthenticationCallback} to notify
+     * @param cipher   unlocked cipher or null if authentication did not use one
+     */
+    static void notifySucceeded(@NonNull final AuthenticationCallback callback,
+                                @Nullable final Cipher cipher) {
+        if (cipher != null && wantsCipher(callback)) {
+            ((CryptoAuthenticationCallback) callback).onAuthenticationSucceeded(new CipherStream(cipher));
+        } else {
+            if (cipher != null) FingerprintKeyManager.releaseCipher(cipher);
+            callback.onAuthenticationSucceeded();
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package com.cengizb.fingerprintdialog;
+
+import android.os.Bundle;
+import android.security.keystore.KeyProperties;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import java.security.spec.AlgorithmParameterSpec;
+import java.util.Arrays;
+
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.IvParameterSpec;
+
+/**
+ * Created by cengizb on 18.10.2026
+ * <p>
+ * Immutable configuration of the key and the cipher unlocked by an authentication.
+ *
+ * @author <a href="https://github.com/cengizbayrak">cengizb</a>
+ */
+final class CipherConfig {
+    // keys of arguments
+    private static final String ARG_KEY_NAME = "arg_key_name";
+    private static final String ARG_VALIDITY_SECONDS = "arg_validity_seconds";
+    private static final String ARG_IV = "arg_iv";
+    private static final String ARG_CIPHER_MODE = "arg_cipher_mode";
+
+    // length of the GCM authentication tag in bits
+    static final int GCM_TAG_LENGTH = 128;
+
+    // name of the key ({@link FingerprintKeyManager})
+    @NonNull
+    final String keyName;
+
+    // seconds the key can be used after an authentication, 0 if every use requires one
+    final int validitySeconds;
+
+    // block mode and padding of the cipher
+    @CipherMode
+    final int cipherMode;
+
+    // initialization vector for decryption, null for encryption
+    @Nullable
+    private final byte[] iv;
+
+    /**
+     * Package private constructor.
+     *
+     * @param keyName         name of the key
+     * @param validitySeconds seconds the key can be used after an authentication, or 0
+     * @param cipherMode      block mode and padding of the cipher
+     * @param iv              initialization vector for decryption, or null for encryption
+     */
+    CipherConfig(@NonNull final String keyName,
+                 final int validitySeconds,
+                 @CipherMode final int cipherMode,
+                 @Nullable final byte[] iv) {
+        this.keyName = keyName;
+        this.validitySeconds = validitySeconds;
+        this.cipherMode = cipherMode;
+        this.iv = iv != null ? iv.clone() : null;
+    }
+
+    /**
+     * Read configuration written by {@link #writeTo(Bundle)}.
+     *
+     * @param bundle arguments
+     * @return {@link CipherConfig} or null if bundle does not contain a configuration
+     */
+    @Nullable
+    static CipherConfig readFrom(@Nullable final Bundle bundle) {
+        if (bundle == null) return null;
+
+        final String keyName = bundle.getString(ARG_KEY_NAME);
+        if (keyName == null) return null;
+
+        //noinspection WrongConstant
+        return new CipherConfig(keyName,
+                bundle.getInt(ARG_VALIDITY_SECONDS),
+                bundle.getInt(ARG_CIPHER_MODE),
+                bundle.getByteArray(ARG_IV));
+    }
+
+    /**
+     * Write configuration into arguments.
+     *
+     * @param bundle arguments
+     */
+    void writeTo(@NonNull final Bundle bundle) {
+        bundle.putString(ARG_KEY_NAME, keyName);
+        bundle.putInt(ARG_VALIDITY_SECONDS, validitySeconds);
+        bundle.putInt(ARG_CIPHER_MODE, cipherMode);
+        bundle.putByteArray(ARG_IV, iv);
+    }
+
+    /**
+     * @return {@link FingerprintKeyManager} of the key
+     */
+    @NonNull
+    FingerprintKeyManager keyManager() {
+        return new FingerprintKeyManager(keyName, validitySeconds, cipherMode);
+    }
+
+    /**
+     * @return initialization vector for decryption, or null for encryption
+     */
+    @Nullable
+    byte[] iv() {
+        return iv;
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) return true;
+        if (!(o instanceof CipherConfig)) return false;
+
+        final CipherConfig that = (CipherConfig) o;
+        return validitySeconds == that.validitySeconds
+                && cipherMode == that.cipherMode
+                && keyName.equals(that.keyName)
+                && Arrays.equals(iv, that.iv);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = keyName.hashCode();
+        result = 31 * result + validitySeconds;
+        result = 31 * result + cipherMode;
+        result = 31 * result + Arrays.hashCode(iv);
+        return result;
+    }
+
+    /**
+     * Get cipher transformation of the cipher mode.
+     *
+     * @param cipherMode {@link CipherMode}
+     * @return transformation for {@link javax.crypto.Cipher#getInstance(String)}
+     */
+    @NonNull
+    static String transformation(@CipherMode final int cipherMode) {
+        return KeyProperties.KEY_ALGORITHM_AES + "/" + blockMode(cipherMode) + "/" + padding(cipherMode);
+    }
+
+    /**
+     * @param cipherMode {@link CipherMode}
+     * @return block mode of {@link KeyProperties}
+     */
+    @NonNull
+    static String blockMode(@CipherMode final int cipherMode) {
+        return cipherMode == CipherMode.GCM
+                ? KeyProperties.BLOCK_MODE_GCM
+                : KeyProperties.BLOCK_MODE_CBC;
+    }
+
+    /**
+     * @param cipherMode {@link CipherMode}
+     * @return encryption padding of {@link KeyProperties}
+     */
+    @NonNull
+    static String padding(@CipherMode final int cipherMode) {
+        return cipherMode == CipherMode.CBC_PKCS7
+                ? KeyProperties.ENCRYPTION_PADDING_PKCS7
+                : KeyProperties.ENCRYPTION_PADDING_NONE;
+    }
+
+    /**
+     * Get cipher parameters for decryption.
+     *
+     * @param cipherMode {@link CipherMode}
+     * @param iv         initialization vector of the encrypted data
+     * @return {@link AlgorithmParameterSpec} of the cipher mode
+     */
+    @NonNull
+    static AlgorithmParameterSpec decryptionParameters(@CipherMode final int cipherMode,
+                                                       @NonNull final byte[] iv) {
+        return cipherMode == CipherMode.GCM
+                ? new GCMParameterSpec(GCM_TAG_LENGTH, iv)
+                : new IvParameterSpec(iv);
+    }
+}
@@ -0,0 +1,42 @@
+package com.cengizb.fingerprintdialog;
+
+import android.support.annotation.IntDef;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+
+/**
+ * Created by cengizb on 18.10.2026
+ * <p>
+ * Block mode and padding of the AES cipher unlocked by fingerprint authentication.
+ *
+ * @author <a href="https://github.com/cengizbayrak">cengizb</a>
+ * @see FingerprintDialogBuilder#cipherMode(int)
+ */
+@Retention(RetentionPolicy.SOURCE)
+@IntDef({CipherMode.CBC_PKCS7,
+        CipherMode.CBC_NO_PADDING,
+        CipherMode.GCM})
+public @interface CipherMode {
+
+    /**
+     * AES/CBC/PKCS7Padding. This is the default.
+     */
+    int CBC_PKCS7 = 0;
+
+    /**
+     * AES/CBC/NoPadding. Length of the data must be multiple of the AES block size (16 bytes).
+     */
+    int CBC_NO_PADDING = 1;
+
+    /**
+     * AES/GCM/NoPadding with 128 bit authentication tag.
+     * <p>
+     * Authenticated encryption without padding step. Tag is appended to the encrypted data by
+     * {@link CipherStream} and verified on decryption. Decrypted data is released only after the
+     * tag is verified, so decryption holds the whole payload in the heap. Process methods of
+     * {@link CipherStream} refuse to decrypt payloads larger than
+     * {@link CipherStream#MAX_GCM_PAYLOAD_SIZE}.
+     */
+    int GCM = 2;
+}
@@ -0,0 +1,57 @@
+package com.cengizb.fingerprintdialog;
+
+import android.support.annotation.NonNull;
+
+import java.security.GeneralSecurityException;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.crypto.Cipher;
+
+/**
+ * Created by cengizb on 18.10.2026
+ * <p>
+ * Small pool of idle ciphers per transformation. Ciphers are re-initialized for every prompt
+ * instead of being created again.
+ *
+ * @author <a href="https://github.com/cengizbayrak">cengizb</a>
+ */
+final class CipherPool {
+    // maximum number of idle ciphers kept per transformation
+    private static final int MAX_POOLED_CIPHERS = 2;
+
+    // idle ciphers by transformation
+    private final Map<String, ArrayDeque<Cipher>> ciphers = new HashMap<>();
+
+    /**
+     * Take an idle cipher from the pool or create a new one. Cipher must be initialized by caller.
+     *
+     * @param transformation cipher transformation
+     * @return {@link Cipher}
+     * @see #release(Cipher)
+     */
+    @NonNull
+    Cipher acquire(@NonNull final String transformation) throws GeneralSecurityException {
+        synchronized (this) {
+            final ArrayDeque<Cipher> pool = ciphers.get(transformation);
+            if (pool != null && !pool.isEmpty()) return pool.poll();
+        }
+        return Cipher.getInstance(transformation);
+    }
+
+    /**
+     * Return cipher into the pool once caller does not use it anymore.
+     *
+     * @param cipher cipher taken by {@link #acquire(String)}
+     */
+    synchronized void release(@NonNull final Cipher cipher) {
+        final String transformation = cipher.getAlgorithm();
+        ArrayDeque<Cipher> pool = ciphers.get(transformation);
+        if (pool == null) {
+            pool = new ArrayDeque<>(MAX_POOLED_CIPHERS);
+            ciphers.put(transformation, pool);
+        }
+        if (pool.size() < MAX_POOLED_CIPHERS && !pool.contains(cipher)) pool.offer(cipher);
+    }
+}
@@ -0,0 +1,298 @@
+package com.cengizb.fingerprintdialog;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.support.annotation.WorkerThread;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.security.GeneralSecurityException;
+
+import javax.crypto.Cipher;
+
+/**
+ * Created by cengizb on 18.10.2026
+ * <p>
+ * Cipher unlocked by fingerprint authentication, wrapped for chunked encryption or decryption.
+ * <p>
+ * Payload is processed chunk by chunk through buffers which are allocated once and reused, so
+ * large payloads are never copied into the heap as a whole.
+ * <p>
+ * Authentication unlocks a single cipher operation. Only one payload can be processed with it,
+ * with one of the process methods or with {@link #update(ByteBuffer, ByteBuffer)} calls
+ * followed by {@link #doFinal(ByteBuffer, ByteBuffer)}. Processing large payloads should be
+ * done on a background thread. This class is not thread safe.
+ *
+ * @author <a href="https://github.com/cengizbayrak">cengizb</a>
+ */
+@SuppressWarnings("WeakerAccess")
+public final class CipherStream {
+    /**
+     * Default size of the chunk processed at once.
+     */
+    public static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * Largest payload the process methods decrypt with {@link CipherMode#GCM}. Cipher holds
+     * decrypted GCM data back until the tag is verified at the end, so the whole payload would be
+     * kept in the heap. Larger payloads should be split and encrypted one by one by the
+     * application, each with its own cipher and tag.
+     */
+    public static final int MAX_GCM_PAYLOAD_SIZE = 16 * 1024 * 1024;
+
+    @NonNull
+    private final Cipher cipher;
+
+    // size of the input chunk
+    private final int bufferSize;
+
+    // reused buffers of stream processing
+    private byte[] inputArray;
+    private byte[] outputArray;
+
+    // reused buffers of channel processing
+    private ByteBuffer inputBuffer;
+    private ByteBuffer outputBuffer;
+
+    // cipher operation is finished or released
+    private boolean isFinished = false;
+
+    // cipher is returned to the pool
+    private boolean isReleased = false;
+
+    /**
+     * Package private constructor.
+     *
+     * @param cipher authenticated cipher
+     */
+    CipherStream(@NonNull final Cipher cipher) {
+        this(cipher, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * Package private constructor.
+     *
+     * @param cipher     authenticated cipher
+     * @param bufferSize size of the input chunk
+     */
+    CipherStream(@NonNull final Cipher cipher, final int bufferSize) {
+        this.cipher = cipher;
+        this.bufferSize = bufferSize;
+    }
+
+    /**
+     * @return authenticated {@link Cipher}
+     */
+    @NonNull
+    public Cipher getCipher() {
+        return cipher;
+    }
+
+    /**
+     * Get initialization vector of the cipher. Application must store it along with the encrypted
+     * data to be able to decrypt it, see {@link FingerprintDialogBuilder#decrypt(byte[])}.
+     *
+     * @return initialization vector or null if cipher does not use one
+     */
+    @Nullable
+    public byte[] getIv() {
+        return cipher.getIV();
+    }
+
+    /**
+     * Process whole input stream into the output stream. Streams are not closed.
+     *
+     * @param in  input stream
+     * @param out output stream
+     * @return number of bytes written into the output stream
+     * @throws IOException              if streams cannot be read or written, or GCM payload is
+     *                                  larger than {@link #MAX_GCM_PAYLOAD_SIZE}
+     * @throws GeneralSecurityException if cipher cannot process the data
+     */
+    @WorkerThread
+    public long process(@NonNull final InputStream in, @NonNull final OutputStream out)
+            throws IOException, GeneralSecurityException {
+        checkNotFinished();
+        if (inputArray == null) inputArray = new byte[bufferSize];
+
+        long total = 0;
+        long written = 0;
+        int read;
+        while ((read = in.read(inputArray)) != -1) {
+            total += read;
+            checkHeldBack(total - written);
+            final byte[] output = outputArray(cipher.getOutputSize(read));
+            final int length = cipher.update(inputArray, 0, read, output, 0);
+            out.write(output, 0, length);
+            written += length;
+        }
+
+        final byte[] output = outputArray(cipher.getOutputSize(0));
+        final int length = cipher.doFinal(output, 0);
+        isFinished = true;
+        out.write(output, 0, length);
+        return written + length;
+    }
+
+    /**
+     * Process whole input channel into the output channel, e.g. {@link java.nio.channels.FileChannel}.
+     * Channels are not closed.
+     * <p>
+     * Chunks are transferred through direct buffers.
+     *
+     * @param in  input channel
+     * @param out output channel
+     * @return number of bytes written into the output channel
+     * @throws IOException              if channels cannot be read or written, or GCM payload is
+     *                                  larger than {@link #MAX_GCM_PAYLOAD_SIZE}
+     * @throws GeneralSecurityException if cipher cannot process the data
+     */
+    @WorkerThread
+    public long process(@NonNull final ReadableByteChannel in, @NonNull final WritableByteChannel out)
+            throws IOException, GeneralSecurityException {
+        checkNotFinished();
+        if (inputBuffer == null) inputBuffer = ByteBuffer.allocateDirect(bufferSize);
+
+        long total = 0;
+        long written = 0;
+        while (in.read(inputBuffer) != -1) {
+            inputBuffer.flip();
+            total += inputBuffer.remaining();
+            checkHeldBack(total - written);
+            final ByteBuffer output = outputBuffer(cipher.getOutputSize(inputBuffer.remaining()));
+            cipher.update(inputBuffer, output);
+            written += drain(output, out);
+            inputBuffer.clear();
+        }
+
+        inputBuffer.clear();
+        inputBuffer.flip();
+        final ByteBuffer output = outputBuffer(cipher.getOutputSize(0));
+        cipher.doFinal(inputBuffer, output);
+        isFinished = true;
+        return written + drain(output, out);
+    }
+
+    /**
+     * Process a chunk. Call {@link #doFinal(ByteBuffer, ByteBuffer)} after the last chunk.
+     *
+     * @param in  input chunk, its position is moved to its limit
+     * @param out output buffer, its position is moved by the number of bytes written
+     * @return number of bytes written into the output buffer
+     * @throws GeneralSecurityException if output buffer is too short or cipher cannot process the data
+     */
+    public int update(@NonNull final ByteBuffer in, @NonNull final ByteBuffer out)
+            throws GeneralSecurityException {
+        checkNotFinished();
+        return cipher.update(in, out);
+    }
+
+    /**
+     * Process the last chunk and finish the cipher operation.
+     *
+     * @param in  input chunk, its position is moved to its limit
+     * @param out output buffer, its position is moved by the number of bytes written
+     * @return number of bytes written into the output buffer
+     * @throws GeneralSecurityException if output buffer is too short or cipher cannot process the data
+     */
+    public int doFinal(@NonNull final ByteBuffer in, @NonNull final ByteBuffer out)
+            throws GeneralSecurityException {
+        checkNotFinished();
+        final int length = cipher.doFinal(in, out);
+        isFinished = true;
+        return length;
+    }
+
+    /**
+     * Get maximum size of the output for the next input chunk.
+     *
+     * @param inputLength length of the next input chunk
+     * @return size of the output buffer required
+     */
+    public int getOutputSize(final int inputLength) {
+        return cipher.getOutputSize(inputLength);
+    }
+
+    /**
+     * Release the cipher and buffers. Cipher is returned to the pool of the library and must not be
+     * used after this. Calling it again does nothing.
+     */
+    public void release() {
+        // cipher returned twice would be handed to two owners
+        if (isReleased) return;
+        isReleased = true;
+        isFinished = true;
+        inputArray = null;
+        outputArray = null;
+        inputBuffer = null;
+        outputBuffer = null;
+        FingerprintKeyManager.releaseCipher(cipher);
+    }
+
+    private void checkNotFinished() {
+        if (isFinished) throw new IllegalStateException("Cipher operation is already finished.");
+    }
+
+    /**
+     * Refuse to go on if the cipher holds back more than {@link #MAX_GCM_PAYLOAD_SIZE}, which only
+     * GCM decryption does. Output buffer would grow to the held back size.
+     *
+     * @param heldBack bytes passed to the cipher but not written yet, including the next chunk
+     * @throws IOException if payload is too large
+     */
+    private void checkHeldBack(final long heldBack) throws IOException {
+        // tag is held back on top of the payload
+        if (heldBack > MAX_GCM_PAYLOAD_SIZE + CipherConfig.GCM_TAG_LENGTH / 8) {
+            isFinished = true;
+            throw new IOException("GCM payload is larger than " + MAX_GCM_PAYLOAD_SIZE + " bytes.");
+        }
+    }
+
+    /**
+     * Get reused output array, grow it if it is smaller than required.
+     *
+     * @param size required size
+     * @return output array
+     */
+    @NonNull
+    private byte[] outputArray(final int size) {
+        if (outputArray == null || outputArray.length < size) {
+            outputArray = new byte[Math.max(size, bufferSize)];
+        }
+        return outputArray;
+    }
+
+    /**
+     * Get reused and cleared output buffer, grow it if it is smaller than required.
+     *
+     * @param size required size
+     * @return output buffer
+     */
+    @NonNull
+    private ByteBuffer outputBuffer(final int size) {
+        if (outputBuffer == null || outputBuffer.capacity() < size) {
+            outputBuffer = ByteBuffer.allocateDirect(Math.max(size, bufferSize));
+        }
+        outputBuffer.clear();
+        return outputBuffer;
+    }
+
+    /**
+     * Write everything in the output buffer into the channel.
+     *
+     * @param buffer output buffer
+     * @param out    output channel
+     * @return number of bytes written
+     */
+    private static int drain(@NonNull final ByteBuffer buffer, @NonNull final WritableByteChannel out)
+            throws IOException {
+        buffer.flip();
+        final int length = buffer.remaining();
+        while (buffer.hasRemaining()) out.write(buffer);
+        return length;
+    }
+}
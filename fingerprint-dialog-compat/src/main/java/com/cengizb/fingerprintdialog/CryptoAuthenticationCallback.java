@@ -0,0 +1,27 @@
+package com.cengizb.fingerprintdialog;
+
+import android.support.annotation.NonNull;
+
+/**
+ * Created by cengizb on 18.10.2026
+ * <p>
+ * {@link AuthenticationCallback} which gets the cipher unlocked by the authentication.
+ * <p>
+ * For implementations of this interface, {@link #onAuthenticationSucceeded(CipherStream)} is
+ * notified instead of {@link #onAuthenticationSucceeded()} if the cipher is available.
+ *
+ * @author <a href="https://github.com/cengizbayrak">cengizb</a>
+ */
+public interface CryptoAuthenticationCallback extends AuthenticationCallback {
+
+    /**
+     * This will notify, fingerprint auth is successful and the cipher is unlocked.
+     * <p>
+     * Fingerprint scan will stop after this and dialog will be dismissed.
+     * <p>
+     * Call {@link CipherStream#release()} once the cipher is not used anymore.
+     *
+     * @param cipher {@link CipherStream} of the unlocked cipher
+     */
+    void onAuthenticationSucceeded(@NonNull final CipherStream cipher);
+}
@@ -0,0 +1,221 @@
+package com.cengizb.fingerprintdialog;
+
+import android.content.ComponentCallbacks2;
+import android.content.Context;
+import android.content.pm.PackageManager;
+import android.content.res.Configuration;
+import android.content.res.Resources;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.drawable.Drawable;
+import android.support.annotation.MainThread;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.support.v4.content.ContextCompat;
+import android.util.LruCache;
+
+/**
+ * Created by cengizb on 18.10.2026
+ * <p>
+ * Process wide cache of the icons of the compat dialog: application icon and fingerprint symbol.
+ * <p>
+ * Icons are loaded on the background thread and drawn into bitmaps of the exact size they are
+ * displayed at, so the dialog neither queries the package manager nor decodes a full resolution
+ * icon on the main thread. Cache is evicted when the system asks the application to trim memory.
+ *
+ * @author <a href="https://github.com/cengizbayrak">cengizb</a>
+ */
+final class DialogIconCache {
+    // icons of all densities and sizes fit easily, e.g. 48dp at xxxhdpi is 147 KB
+    private static final int MAX_SIZE_BYTES = 1024 * 1024;
+
+    // icons are cached by type and size, so a density change does not reuse them
+    private static final String TYPE_APP_ICON = "app_icon_";
+    private static final String TYPE_FINGERPRINT = "fingerprint_";
+
+    private static final LruCache<String, Bitmap> icons = new LruCache<String, Bitmap>(MAX_SIZE_BYTES) {
+        @Override
+        protected int sizeOf(final String key, final Bitmap value) {
+            return value.getByteCount();
+        }
+    };
+
+    // trim callbacks are registered to the application
+    private static volatile boolean observing;
+
+    /**
+     * Listener of an icon.
+     */
+    interface Listener {
+        /**
+         * Icon is ready.
+         *
+         * @param icon icon or null if it cannot be loaded
+         */
+        @MainThread
+        void onIconReady(@Nullable Bitmap icon);
+    }
+
+    private DialogIconCache() {
+        // no instance
+    }
+
+    /**
+     * Load icons of the dialog on the background thread if they are not cached yet.
+     *
+     * @param context caller context
+     */
+    static void preload(@NonNull final Context context) {
+        final Context appContext = context.getApplicationContext();
+        observe(appContext);
+        LibraryExecutors.background().execute(new Runnable() {
+            @Override
+            public void run() {
+                load(appContext, TYPE_APP_ICON);
+                load(appContext, TYPE_FINGERPRINT);
+            }
+        });
+    }
+
+    /**
+     * Get application icon sized for the dialog header.
+     *
+     * @param context  caller context
+     * @param listener {@link Listener} to notify, immediately if icon is cached
+     */
+    @MainThread
+    static void getAppIcon(@NonNull final Context context, @NonNull final Listener listener) {
+        get(context, TYPE_APP_ICON, listener);
+    }
+
+    /**
+     * Get fingerprint symbol sized for the dialog.
+     *
+     * @param context  caller context
+     * @param listener {@link Listener} to notify, immediately if icon is cached
+     */
+    @MainThread
+    static void getFingerprintIcon(@NonNull final Context context, @NonNull final Listener listener) {
+        get(context, TYPE_FINGERPRINT, listener);
+    }
+
+    @MainThread
+    private static void get(@NonNull final Context context,
+                            @NonNull final String type,
+                            @NonNull final Listener listener) {
+        final Bitmap cached = icons.get(type + size(context, type));
+        if (cached != null) {
+            listener.onIconReady(cached);
+            return;
+        }
+
+        final Context appContext = context.getApplicationContext();
+        observe(appContext);
+        LibraryExecutors.background().execute(new Runnable() {
+            @Override
+            public void run() {
+                final Bitmap icon = load(appContext, type);
+                LibraryExecutors.mainThread().post(new Runnable() {
+                    @Override
+                    public void run() {
+                        listener.onIconReady(icon);
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * Get cached icon or load it. Called on the background thread.
+     *
+     * @param context application context
+     * @param type    type of the icon
+     * @return icon or null if it cannot be loaded
+     */
+    @Nullable
+    private static Bitmap load(@NonNull final Context context, @NonNull final String type) {
+        final int size = size(context, type);
+        final String key = type + size;
+        Bitmap icon = icons.get(key);
+        if (icon != null) return icon;
+
+        final Drawable drawable;
+        if (TYPE_APP_ICON.equals(type)) {
+            try {
+                drawable = context.getPackageManager().getApplicationIcon(context.getPackageName());
+            } catch (PackageManager.NameNotFoundException e) {
+                return null;
+            }
+        } else {
+            drawable = ContextCompat.getDrawable(context, R.drawable.ic_fingerprint_white);
+            if (drawable == null) return null;
+        }
+        icon = rasterize(drawable, size);
+        icons.put(key, icon);
+        return icon;
+    }
+
+    /**
+     * Get size of the icon as displayed by the dialog.
+     *
+     * @param context caller context
+     * @param type    type of the icon
+     * @return width and height in pixels
+     */
+    private static int size(@NonNull final Context context, @NonNull final String type) {
+        final Resources resources = context.getResources();
+        if (TYPE_APP_ICON.equals(type)) {
+            return resources.getDimensionPixelSize(R.dimen.fingerprint_dialog_app_icon_size);
+        }
+        // symbol is drawn inside the padding of its background
+        return resources.getDimensionPixelSize(R.dimen.fingerprint_dialog_symbol_size)
+                - 2 * resources.getDimensionPixelSize(R.dimen.fingerprint_dialog_symbol_padding);
+    }
+
+    /**
+     * Draw drawable into a bitmap of the given size.
+     *
+     * @param drawable drawable to draw
+     * @param size     width and height of the bitmap in pixels
+     * @return {@link Bitmap}
+     */
+    @NonNull
+    private static Bitmap rasterize(@NonNull final Drawable drawable, final int size) {
+        final Bitmap bitmap = Bitmap.createBitmap(size, size, Bitmap.Config.ARGB_8888);
+        // drawable may share its state with other instances
+        final Drawable icon = drawable.mutate();
+        icon.setBounds(0, 0, size, size);
+        icon.draw(new Canvas(bitmap));
+        return bitmap;
+    }
+
+    /**
+     * Evict cache when application is asked to trim memory. Callbacks are registered only once.
+     *
+     * @param appContext application context
+     */
+    private static void observe(@NonNull final Context appContext) {
+        if (observing) return;
+        synchronized (DialogIconCache.class) {
+            if (observing) return;
+            observing = true;
+        }
+        appContext.registerComponentCallbacks(new ComponentCallbacks2() {
+            @Override
+            public void onTrimMemory(final int level) {
+                // icons are cheap to load again, keep them only while memory is fine
+                if (level >= TRIM_MEMORY_RUNNING_LOW) icons.evictAll();
+            }
+
+            @Override
+            public void onConfigurationChanged(final Configuration newConfig) {
+                // icons of another density are cached under another key
+            }
+
+            @Override
+            public void onLowMemory() {
+                icons.evictAll();
+            }
+        });
+    }
+}
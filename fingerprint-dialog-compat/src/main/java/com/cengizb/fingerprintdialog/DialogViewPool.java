@@ -0,0 +1,141 @@
+package com.cengizb.fingerprintdialog;
+
+import android.app.Activity;
+import android.app.Application;
+import android.os.Bundle;
+import android.os.Looper;
+import android.support.annotation.MainThread;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.support.v4.view.AsyncLayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.view.ViewParent;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Created by cengizb on 18.10.2026
+ * <p>
+ * Keeps one inflated view hierarchy of the compat dialog per {@link Activity}.
+ * <p>
+ * Layout is inflated in advance by {@link AsyncLayoutInflater} when the builder is created. The
+ * dialog takes the view instead of inflating it, rebinds it and returns it once it is destroyed,
+ * so shows after the first one skip inflation. Views are dropped when their activity is destroyed.
+ * All methods must be called on the main thread.
+ *
+ * @author <a href="https://github.com/cengizbayrak">cengizb</a>
+ */
+final class DialogViewPool {
+    // inflated views which are not shown, by activity
+    private static final Map<Activity, View> views = new HashMap<>();
+
+    // activities of which view is being inflated
+    private static final Set<Activity> inflating = new HashSet<>();
+
+    // applications of which activity lifecycle is observed
+    private static final Set<Application> observed = new HashSet<>();
+
+    private DialogViewPool() {
+        // no instance
+    }
+
+    /**
+     * Inflate dialog view of the activity in advance, if there is none yet.
+     *
+     * @param activity activity which will display the dialog
+     */
+    @MainThread
+    static void preInflate(@NonNull final Activity activity) {
+        if (Looper.myLooper() != Looper.getMainLooper()) return;
+        if (views.containsKey(activity) || inflating.contains(activity)) return;
+        if (activity.isFinishing()) return;
+
+        observe(activity.getApplication());
+        inflating.add(activity);
+        new AsyncLayoutInflater(activity).inflate(R.layout.fingerprint_compat_dialog, null,
+                new AsyncLayoutInflater.OnInflateFinishedListener() {
+                    @Override
+                    public void onInflateFinished(@NonNull final View view,
+                                                  final int resId,
+                                                  @Nullable final ViewGroup parent) {
+                        // activity destroyed while inflating
+                        if (!inflating.remove(activity)) return;
+                        if (!views.containsKey(activity)) views.put(activity, view);
+                    }
+                });
+    }
+
+    /**
+     * Take inflated view of the activity. View is not kept by the pool until it is released.
+     *
+     * @param activity activity which displays the dialog
+     * @return inflated view or null if there is none
+     */
+    @Nullable
+    @MainThread
+    static View take(@Nullable final Activity activity) {
+        return activity != null ? views.remove(activity) : null;
+    }
+
+    /**
+     * Return view of a destroyed dialog, so next dialog of the activity can reuse it.
+     *
+     * @param activity activity which displayed the dialog
+     * @param view     view of the dialog
+     */
+    @MainThread
+    static void release(@Nullable final Activity activity, @NonNull final View view) {
+        final ViewParent parent = view.getParent();
+        if (parent instanceof ViewGroup) ((ViewGroup) parent).removeView(view);
+
+        if (activity == null || activity.isFinishing() || activity.isChangingConfigurations()) {
+            return;
+        }
+        if (!observed.contains(activity.getApplication())) return;
+        if (!views.containsKey(activity)) views.put(activity, view);
+    }
+
+    /**
+     * Observe activities of the application to drop views of destroyed ones.
+     *
+     * @param application {@link Application}
+     */
+    private static void observe(@Nullable final Application application) {
+        if (application == null || !observed.add(application)) return;
+        application.registerActivityLifecycleCallbacks(new Application.ActivityLifecycleCallbacks() {
+            @Override
+            public void onActivityCreated(final Activity activity, final Bundle savedInstanceState) {
+            }
+
+            @Override
+            public void onActivityStarted(final Activity activity) {
+            }
+
+            @Override
+            public void onActivityResumed(final Activity activity) {
+            }
+
+            @Override
+            public void onActivityPaused(final Activity activity) {
+            }
+
+            @Override
+            public void onActivityStopped(final Activity activity) {
+            }
+
+            @Override
+            public void onActivitySaveInstanceState(final Activity activity, final Bundle outState) {
+            }
+
+            @Override
+            public void onActivityDestroyed(final Activity activity) {
+                views.remove(activity);
+                inflating.remove(activity);
+            }
+        });
+    }
+}
@@ -0,0 +1,58 @@
+package com.cengizb.fingerprintdialog;
+
+import android.support.annotation.NonNull;
+
+/**
+ * Created by cengizb on 18.10.2026
+ * <p>
+ * Secret encrypted with the authentication key, along with its initialization vector
+ * ({@link CipherStream#getIv()}).
+ *
+ * @author <a href="https://github.com/cengizbayrak">cengizb</a>
+ * @see FingerprintDialogBuilder#showBatchUnlock(android.support.v4.app.FragmentManager, java.util.List, BatchUnlockCallback)
+ */
+@SuppressWarnings("WeakerAccess")
+public final class EncryptedSecret {
+    @NonNull
+    private final byte[] iv;
+
+    @NonNull
+    private final byte[] cipherText;
+
+    /**
+     * Public constructor.
+     *
+     * @param iv         initialization vector the secret is encrypted with
+     * @param cipherText encrypted secret
+     */
+    public EncryptedSecret(@NonNull final byte[] iv, @NonNull final byte[] cipherText) {
+        this.iv = iv.clone();
+        this.cipherText = cipherText.clone();
+    }
+
+    /**
+     * @return initialization vector the secret is encrypted with
+     */
+    @NonNull
+    public byte[] getIv() {
+        return iv.clone();
+    }
+
+    /**
+     * @return encrypted secret
+     */
+    @NonNull
+    public byte[] getCipherText() {
+        return cipherText.clone();
+    }
+
+    @NonNull
+    byte[] iv() {
+        return iv;
+    }
+
+    @NonNull
+    byte[] cipherText() {
+        return cipherText;
+    }
+}
@@ -26,6 +26,17 @@ import java.lang.annotation.RetentionPolicy;
         FingerprintManager.FINGERPRINT_ERROR_NO_SPACE,
         FingerprintManager.FINGERPRINT_ERROR_TIMEOUT,
         FingerprintManager.FINGERPRINT_ERROR_UNABLE_TO_PROCESS,
-        FingerprintManager.FINGERPRINT_ERROR_VENDOR})
+        FingerprintManager.FINGERPRINT_ERROR_VENDOR,
+        ErrorCode.KEY_INVALIDATED})
 public @interface ErrorCode {
+
+    /**
+     * Key of the decryption is permanently invalidated, e.g. new fingerprint enrolled, or it is
+     * deleted. Data encrypted with the key cannot be decrypted anymore, it must be restored and
+     * encrypted again. Reported by the library without an error message; the value is outside the
+     * range of the framework error codes.
+     *
+     * @see FingerprintDialogBuilder#decrypt(byte[])
+     */
+    int KEY_INVALIDATED = 100;
 }
@@ -0,0 +1,284 @@
+package com.cengizb.fingerprintdialog;
+
+import android.support.annotation.NonNull;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Created by cengizb on 18.10.2026
+ * <p>
+ * Reads dumps written by {@link AuthenticationEventRecorder#dump(File, int)}. Decoder does not
+ * use android classes, dumps pulled from a device can be printed as timelines on the JVM:
+ * <pre>
+ * java -cp fingerprint-dialog-compat.jar com.cengizb.fingerprintdialog.EventDumpDecoder &lt;dump&gt;...
+ * </pre>
+ *
+ * @author <a href="https://github.com/cengizbayrak">cengizb</a>
+ */
+@SuppressWarnings("WeakerAccess")
+public final class EventDumpDecoder {
+
+    private EventDumpDecoder() {
+        // no instance
+    }
+
+    /**
+     * Print timelines of the dump files, one per authentication.
+     *
+     * @param args paths of the dump files
+     * @throws IOException if a dump cannot be read
+     */
+    public static void main(final String[] args) throws IOException {
+        for (String path : args) {
+            final Dump dump = decode(new File(path));
+            System.out.println(path + ": " + dump.getEvents().size() + " events, dumped at "
+                    + String.format(Locale.US, "%tFT%<tT", dump.getWallClockMillis()));
+            for (Map.Entry<Integer, List<Event>> session : dump.getSessions().entrySet()) {
+                final List<Event> events = session.getValue();
+                final long start = events.get(0).getTimestampNanos();
+                System.out.println(String.format(Locale.US, "  session %d (%s) at %tT",
+                        session.getKey(), backendName(events.get(0).getBackend()),
+                        dump.getWallClockMillisOf(events.get(0))));
+                for (Event event : events) {
+                    System.out.println(String.format(Locale.US, "    %+10.1f ms  %s",
+                            (event.getTimestampNanos() - start) / 1e6, describe(event)));
+                }
+            }
+        }
+    }
+
+    /**
+     * Read dump file.
+     *
+     * @param file dump file
+     * @return {@link Dump}
+     * @throws IOException if file cannot be read or is not a dump
+     */
+    @NonNull
+    public static Dump decode(@NonNull final File file) throws IOException {
+        final FileChannel channel = new FileInputStream(file).getChannel();
+        try {
+            final ByteBuffer buffer = ByteBuffer.allocate((int) channel.size());
+            while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+                // read whole file
+            }
+            buffer.flip();
+            return decode(buffer);
+        } finally {
+            channel.close();
+        }
+    }
+
+    /**
+     * Read dump.
+     *
+     * @param buffer content of the dump
+     * @return {@link Dump}
+     * @throws IOException if buffer is not a dump
+     */
+    @NonNull
+    public static Dump decode(@NonNull final ByteBuffer buffer) throws IOException {
+        try {
+            if (buffer.getInt() != AuthenticationEventRecorder.MAGIC) {
+                throw new IOException("Not an authentication event dump.");
+            }
+            final int version = buffer.getInt();
+            if (version != AuthenticationEventRecorder.VERSION) {
+                throw new IOException("Unsupported dump version " + version);
+            }
+            final long wallClockMillis = buffer.getLong();
+            final long elapsedNanos = buffer.getLong();
+            final int count = buffer.getInt();
+            final List<Event> events = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                final long timestamp = buffer.getLong();
+                final int session = buffer.getInt();
+                final int code = buffer.getInt();
+                final int type = buffer.get();
+                final int backend = buffer.get();
+                events.add(new Event(timestamp, session, type, code, backend));
+            }
+            return new Dump(wallClockMillis, elapsedNanos, events);
+        } catch (BufferUnderflowException e) {
+            throw new IOException("Dump is truncated.", e);
+        }
+    }
+
+    /**
+     * @param event {@link Event}
+     * @return readable type and code of the event
+     */
+    @NonNull
+    public static String describe(@NonNull final Event event) {
+        switch (event.getType()) {
+            case AuthenticationEventRecorder.EVENT_PHASE:
+                return "phase " + phaseName(event.getCode());
+            case AuthenticationEventRecorder.EVENT_ERROR:
+                return "error " + event.getCode();
+            case AuthenticationEventRecorder.EVENT_HELP:
+                return "help " + event.getCode();
+            case AuthenticationEventRecorder.EVENT_FAILED:
+                return "failed";
+            case AuthenticationEventRecorder.EVENT_SUCCEEDED:
+                return "succeeded";
+            case AuthenticationEventRecorder.EVENT_CANCELED:
+                return "canceled by user";
+            case AuthenticationEventRecorder.EVENT_NOT_SUPPORTED:
+                return "not supported";
+            case AuthenticationEventRecorder.EVENT_NO_ENROLLED:
+                return "no enrolled fingerprints";
+            default:
+                return "unknown " + event.getType() + "/" + event.getCode();
+        }
+    }
+
+    @NonNull
+    private static String phaseName(final int phase) {
+        switch (phase) {
+            case AuthenticationPhase.SHOW_CALLED:
+                return "SHOW_CALLED";
+            case AuthenticationPhase.CAPABILITIES_CHECKED:
+                return "CAPABILITIES_CHECKED";
+            case AuthenticationPhase.CIPHER_READY:
+                return "CIPHER_READY";
+            case AuthenticationPhase.VIEW_INFLATED:
+                return "VIEW_INFLATED";
+            case AuthenticationPhase.SENSOR_ARMED:
+                return "SENSOR_ARMED";
+            case AuthenticationPhase.FIRST_SENSOR_EVENT:
+                return "FIRST_SENSOR_EVENT";
+            case AuthenticationPhase.RESULT:
+                return "RESULT";
+            default:
+                return String.valueOf(phase);
+        }
+    }
+
+    @NonNull
+    private static String backendName(final int backend) {
+        return backend == AuthenticationEventRecorder.BACKEND_BIOMETRIC_PROMPT
+                ? "BiometricPrompt"
+                : "FingerprintManager";
+    }
+
+    /**
+     * Decoded dump.
+     */
+    public static final class Dump {
+        private final long wallClockMillis;
+        private final long elapsedNanos;
+        @NonNull
+        private final List<Event> events;
+
+        Dump(final long wallClockMillis, final long elapsedNanos, @NonNull final List<Event> events) {
+            this.wallClockMillis = wallClockMillis;
+            this.elapsedNanos = elapsedNanos;
+            this.events = Collections.unmodifiableList(events);
+        }
+
+        /**
+         * @return wall clock time of the dump
+         */
+        public long getWallClockMillis() {
+            return wallClockMillis;
+        }
+
+        /**
+         * @return events, oldest first
+         */
+        @NonNull
+        public List<Event> getEvents() {
+            return events;
+        }
+
+        /**
+         * @return events grouped by authentication, in the order of their first event
+         */
+        @NonNull
+        public Map<Integer, List<Event>> getSessions() {
+            final Map<Integer, List<Event>> sessions = new LinkedHashMap<>();
+            for (Event event : events) {
+                List<Event> session = sessions.get(event.getSession());
+                if (session == null) {
+                    session = new ArrayList<>();
+                    sessions.put(event.getSession(), session);
+                }
+                session.add(event);
+            }
+            return sessions;
+        }
+
+        /**
+         * @param event event of the dump
+         * @return approximate wall clock time of the event
+         */
+        public long getWallClockMillisOf(@NonNull final Event event) {
+            return wallClockMillis - (elapsedNanos - event.getTimestampNanos()) / 1000000;
+        }
+    }
+
+    /**
+     * Decoded event.
+     */
+    public static final class Event {
+        private final long timestampNanos;
+        private final int session;
+        private final int type;
+        private final int code;
+        private final int backend;
+
+        Event(final long timestampNanos, final int session, final int type, final int code, final int backend) {
+            this.timestampNanos = timestampNanos;
+            this.session = session;
+            this.type = type;
+            this.code = code;
+            this.backend = backend;
+        }
+
+        /**
+         * @return {@link android.os.SystemClock#elapsedRealtimeNanos()} of the event
+         */
+        public long getTimestampNanos() {
+            return timestampNanos;
+        }
+
+        /**
+         * @return id of the authentication
+         */
+        public int getSession() {
+            return session;
+        }
+
+        /**
+         * @return type of the event, e.g. {@link AuthenticationEventRecorder#EVENT_PHASE}
+         */
+        public int getType() {
+            return type;
+        }
+
+        /**
+         * @return code of the event
+         */
+        public int getCode() {
+            return code;
+        }
+
+        /**
+         * @return backend of the event, e.g. {@link AuthenticationEventRecorder#BACKEND_BIOMETRIC_PROMPT}
+         */
+        public int getBackend() {
+            return backend;
+        }
+    }
+}
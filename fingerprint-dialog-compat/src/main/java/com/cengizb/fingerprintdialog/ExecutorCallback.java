@@ -0,0 +1,114 @@
+package com.cengizb.fingerprintdialog;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import java.util.concurrent.Executor;
+
+/**
+ * Created by cengizb on 18.10.2026
+ * <p>
+ * Delivers events of an authentication to the callback of the application on its own
+ * {@link Executor}, see {@link FingerprintDialogBuilder#callbackExecutor(Executor)}.
+ * <p>
+ * Events are delivered one at a time, in the order the sensor reported them.
+ *
+ * @author <a href="https://github.com/cengizbayrak">cengizb</a>
+ */
+final class ExecutorCallback extends ForwardingCallback {
+
+    @NonNull
+    private final Executor executor;
+
+    /**
+     * Package private constructor.
+     *
+     * @param delegate {@link AuthenticationCallback} implemented by caller
+     * @param executor {@link Executor} to deliver the events on
+     */
+    ExecutorCallback(@NonNull final AuthenticationCallback delegate,
+                     @NonNull final Executor executor) {
+        super(delegate);
+        this.executor = new SerialExecutor(executor);
+    }
+
+    @Override
+    public void fingerprintAuthenticationNotSupported() {
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                ExecutorCallback.super.fingerprintAuthenticationNotSupported();
+            }
+        });
+    }
+
+    @Override
+    public void noEnrolledFingerprints() {
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                ExecutorCallback.super.noEnrolledFingerprints();
+            }
+        });
+    }
+
+    @Override
+    public void authenticationCanceledByUser() {
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                ExecutorCallback.super.authenticationCanceledByUser();
+            }
+        });
+    }
+
+    @Override
+    public void onAuthenticationError(final int code, @Nullable final CharSequence error) {
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                ExecutorCallback.super.onAuthenticationError(code, error);
+            }
+        });
+    }
+
+    @Override
+    public void onAuthenticationHelp(final int code, @Nullable final CharSequence help) {
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                ExecutorCallback.super.onAuthenticationHelp(code, help);
+            }
+        });
+    }
+
+    @Override
+    public void onAuthenticationFailed() {
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                ExecutorCallback.super.onAuthenticationFailed();
+            }
+        });
+    }
+
+    @Override
+    public void onAuthenticationSucceeded() {
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                ExecutorCallback.super.onAuthenticationSucceeded();
+            }
+        });
+    }
+
+    @Override
+    public void onAuthenticationSucceeded(@NonNull final CipherStream cipher) {
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                ExecutorCallback.super.onAuthenticationSucceeded(cipher);
+            }
+        });
+    }
+}
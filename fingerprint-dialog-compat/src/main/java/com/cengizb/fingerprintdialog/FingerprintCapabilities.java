@@ -0,0 +1,215 @@
+package com.cengizb.fingerprintdialog;
+
+import android.content.Context;
+import android.os.Build;
+import android.os.SystemClock;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.support.annotation.WorkerThread;
+import android.support.v4.hardware.fingerprint.FingerprintManagerCompat;
+
+import java.io.IOException;
+import java.security.GeneralSecurityException;
+
+/**
+ * Created by cengizb on 18.10.2026
+ * <p>
+ * Immutable snapshot of fingerprint capabilities of the device: API level, hardware, enrolled
+ * fingerprints and key store.
+ * <p>
+ * Hardware and enrollment are binder calls to the fingerprint service. Snapshot is queried once
+ * and shared by {@link FingerprintDialogBuilder} and the dialog, instead of querying the service
+ * on every check. Snapshot is refreshed on resume or on demand: dialog refreshes it when it is
+ * resumed again, e.g. after user visited security settings, and application can refresh it by
+ * {@link #refresh(Context)}. Negative snapshot is never reused, {@link #get(Context)} queries
+ * again until fingerprint authentication is available, so a fingerprint enrolled meanwhile is
+ * seen by the next dialog.
+ * <p>
+ * Key store is not loaded on the main thread, only
+ * {@link FingerprintUtils#probeCapabilities(Context, FingerprintUtils.CapabilitiesCallback)}
+ * probes it.
+ *
+ * @author <a href="https://github.com/cengizbayrak">cengizb</a>
+ */
+@SuppressWarnings("WeakerAccess")
+public final class FingerprintCapabilities {
+    // last snapshot of the process
+    @Nullable
+    private static volatile FingerprintCapabilities cached;
+
+    private final int apiLevel;
+
+    private final boolean hardwareDetected;
+
+    private final boolean fingerprintsEnrolled;
+
+    private final boolean keyStoreAvailable;
+
+    // SystemClock.elapsedRealtime() of the query
+    private final long timestamp;
+
+    private FingerprintCapabilities(final int apiLevel,
+                                    final boolean hardwareDetected,
+                                    final boolean fingerprintsEnrolled,
+                                    final boolean keyStoreAvailable,
+                                    final long timestamp) {
+        this.apiLevel = apiLevel;
+        this.hardwareDetected = hardwareDetected;
+        this.fingerprintsEnrolled = fingerprintsEnrolled;
+        this.keyStoreAvailable = keyStoreAvailable;
+        this.timestamp = timestamp;
+    }
+
+    /**
+     * Get last snapshot, query it if there is none yet or if it cannot authenticate.
+     *
+     * @param context caller context
+     * @return {@link FingerprintCapabilities}
+     */
+    @NonNull
+    public static FingerprintCapabilities get(@NonNull final Context context) {
+        final FingerprintCapabilities capabilities = cached;
+        // hardware or enrollment may show up later, e.g. fingerprint enrolled in settings
+        final boolean isFinal = capabilities != null
+                && (capabilities.canAuthenticate() || !capabilities.isApiSupported());
+        return isFinal ? capabilities : refresh(context);
+    }
+
+    /**
+     * Query capabilities again and replace the last snapshot.
+     *
+     * @param context caller context
+     * @return new {@link FingerprintCapabilities}
+     */
+    @NonNull
+    public static FingerprintCapabilities refresh(@NonNull final Context context) {
+        final FingerprintCapabilities last = cached;
+        // loading the key store is slow, keep the flag of the last probe
+        final FingerprintCapabilities capabilities =
+                query(context, last == null || last.keyStoreAvailable);
+        cached = capabilities;
+        return capabilities;
+    }
+
+    /**
+     * Query capabilities with the key store and replace the last snapshot.
+     *
+     * @param context caller context
+     * @return new {@link FingerprintCapabilities}
+     */
+    @WorkerThread
+    @NonNull
+    static FingerprintCapabilities probe(@NonNull final Context context) {
+        final FingerprintCapabilities capabilities = query(context, probeKeyStore());
+        cached = capabilities;
+        return capabilities;
+    }
+
+    /**
+     * Drop last snapshot, next {@link #get(Context)} queries capabilities again.
+     */
+    public static void invalidate() {
+        cached = null;
+    }
+
+    /**
+     * Query capabilities without touching the last snapshot.
+     *
+     * @param context           caller context
+     * @param keyStoreAvailable result of the key store probe
+     * @return {@link FingerprintCapabilities}
+     */
+    @NonNull
+    private static FingerprintCapabilities query(@NonNull final Context context,
+                                                 final boolean keyStoreAvailable) {
+        final int apiLevel = Build.VERSION.SDK_INT;
+        final long timestamp = SystemClock.elapsedRealtime();
+        if (apiLevel < Build.VERSION_CODES.M) {
+            return new FingerprintCapabilities(apiLevel, false, false, false, timestamp);
+        }
+
+        final FingerprintManagerCompat fpm = FingerprintManagerCompat.from(context);
+        final boolean hardwareDetected = fpm.isHardwareDetected();
+        // enrollment cannot be queried without hardware
+        final boolean fingerprintsEnrolled = hardwareDetected && fpm.hasEnrolledFingerprints();
+        return new FingerprintCapabilities(apiLevel, hardwareDetected, fingerprintsEnrolled,
+                keyStoreAvailable, timestamp);
+    }
+
+    /**
+     * Check if key store of the {@link KeyProvider} can be loaded. Loading it is slow, never
+     * call this on the main thread.
+     *
+     * @return true if key store is available
+     */
+    @WorkerThread
+    private static boolean probeKeyStore() {
+        try {
+            FingerprintKeyManager.getKeyProvider().aliases();
+            return true;
+        } catch (GeneralSecurityException | IOException | RuntimeException e) {
+            return false;
+        }
+    }
+
+    /**
+     * @return API level of the device
+     */
+    public int getApiLevel() {
+        return apiLevel;
+    }
+
+    /**
+     * @return true if android version supports fingerprint authentication
+     */
+    public boolean isApiSupported() {
+        return apiLevel >= Build.VERSION_CODES.M;
+    }
+
+    /**
+     * @return true if device has fingerprint hardware
+     */
+    public boolean isHardwareDetected() {
+        return hardwareDetected;
+    }
+
+    /**
+     * @return true if device has at least one enrolled fingerprint
+     */
+    public boolean hasEnrolledFingerprints() {
+        return fingerprintsEnrolled;
+    }
+
+    /**
+     * Key store is loaded only by
+     * {@link FingerprintUtils#probeCapabilities(Context, FingerprintUtils.CapabilitiesCallback)},
+     * until then this is true and key store errors are reported by the authentication itself.
+     *
+     * @return true if key store can be accessed for authentication keys
+     */
+    public boolean isKeyStoreAvailable() {
+        return keyStoreAvailable;
+    }
+
+    /**
+     * @return true if fingerprint authentication can be shown
+     */
+    public boolean canAuthenticate() {
+        return isApiSupported() && hardwareDetected && fingerprintsEnrolled;
+    }
+
+    /**
+     * @return {@link SystemClock#elapsedRealtime()} when capabilities were queried
+     */
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    @Override
+    public String toString() {
+        return "FingerprintCapabilities{apiLevel=" + apiLevel
+                + ", hardwareDetected=" + hardwareDetected
+                + ", fingerprintsEnrolled=" + fingerprintsEnrolled
+                + ", keyStoreAvailable=" + keyStoreAvailable + '}';
+    }
+}
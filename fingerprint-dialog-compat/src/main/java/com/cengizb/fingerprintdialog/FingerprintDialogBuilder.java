@@ -2,6 +2,7 @@ package com.cengizb.fingerprintdialog;
 
 import android.annotation.SuppressLint;
 import android.annotation.TargetApi;
+import android.app.Activity;
 import android.content.Context;
 import android.content.DialogInterface;
 import android.hardware.biometrics.BiometricPrompt;
@@ -13,8 +14,11 @@ import android.support.annotation.StringRes;
 import android.support.v4.app.FragmentManager;
 import android.text.TextUtils;
 
+import java.util.List;
 import java.util.concurrent.Executor;
 
+import javax.crypto.Cipher;
+
 /**
  * Created by cengizb on 30.05.2019
  * <p>
@@ -41,13 +45,62 @@ public class FingerprintDialogBuilder {
     // dialog negative/cancel button title
     private String buttonTitle;
 
+    // name of the authentication key
+    @NonNull
+    private String keyName = FingerprintKeyManager.DEFAULT_KEY_NAME;
+
+    // initialization vector for decryption, null for encryption
+    @Nullable
+    private byte[] iv;
+
+    // seconds the key can be used after an authentication, 0 if every use requires one
+    private int validitySeconds = 0;
+
+    // block mode and padding of the cipher
+    @CipherMode
+    private int cipherMode = CipherMode.CBC_PKCS7;
+
+    // cipher prepared in advance for the next dialog
+    @Nullable
+    private PreparedCipher preparedCipher;
+
+    // listener of authentication phases
+    @Nullable
+    private AuthenticationPhaseListener phaseListener;
+
+    // milliseconds the sensor of the compat dialog keeps running while it is paused
+    private long pauseGraceMillis = 0;
+
+    // sensor of the compat dialog is armed on show, before the dialog is displayed
+    private boolean armOnShow = false;
+
+    // milliseconds until an authentication times out, 0 if it has no deadline
+    private long timeoutMillis = 0;
+
+    // executor of the callback events, null to deliver them on the main thread
+    @Nullable
+    private Executor callbackExecutor;
+
     /**
      * Public constructor.
+     * <p>
+     * Cipher for authentication starts to be prepared on background thread, see {@link #prepare()}.
+     * Prepared cipher holds a key store operation until it is shown, so call {@link #release()}
+     * if the builder is dropped without showing it. Icons of the compat dialog start to be loaded,
+     * and if context is an activity, its layout starts to be inflated in advance.
      *
      * @param context {@link Context} caller context
      */
     public FingerprintDialogBuilder(@NonNull final Context context) {
         this.context = context;
+        prepare();
+
+        // compat dialog layout and icons are loaded in advance
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.M
+                && Build.VERSION.SDK_INT < Build.VERSION_CODES.P) {
+            DialogIconCache.preload(context);
+            if (context instanceof Activity) DialogViewPool.preInflate((Activity) context);
+        }
     }
 
     /**
@@ -146,13 +199,282 @@ public class FingerprintDialogBuilder {
         return this;
     }
 
+    /**
+     * Set name of the key used for authentication. Default name is
+     * {@link FingerprintKeyManager#DEFAULT_KEY_NAME}.
+     * <p>
+     * Key is generated once and reused by every dialog shown with the same name.
+     *
+     * @param keyName key name
+     * @return {@link FingerprintDialogBuilder}
+     */
+    public FingerprintDialogBuilder keyName(@NonNull final String keyName) {
+        this.keyName = keyName;
+        invalidatePreparedCipher();
+        return this;
+    }
+
+    /**
+     * Unlock the cipher for encryption. This is the default.
+     * <p>
+     * Unlocked cipher is delivered to {@link CryptoAuthenticationCallback}.
+     *
+     * @return {@link FingerprintDialogBuilder}
+     * @see #decrypt(byte[])
+     */
+    public FingerprintDialogBuilder encrypt() {
+        this.iv = null;
+        invalidatePreparedCipher();
+        return this;
+    }
+
+    /**
+     * Unlock the cipher for decryption of data encrypted with the given initialization vector
+     * ({@link CipherStream#getIv()}).
+     * <p>
+     * Unlocked cipher is delivered to {@link CryptoAuthenticationCallback}. If the key of the data
+     * is permanently invalidated or deleted, it is not generated again and
+     * {@link AuthenticationCallback#onAuthenticationError(int, CharSequence)} is notified with
+     * {@link ErrorCode#KEY_INVALIDATED}.
+     *
+     * @param iv initialization vector of the encrypted data
+     * @return {@link FingerprintDialogBuilder}
+     * @see #encrypt()
+     */
+    public FingerprintDialogBuilder decrypt(@NonNull final byte[] iv) {
+        this.iv = iv.clone();
+        invalidatePreparedCipher();
+        return this;
+    }
+
+    /**
+     * Allow the key to be used for the given number of seconds after the user authenticated.
+     * Default is 0, every use of the key requires authentication.
+     * <p>
+     * Within the window, {@link #show(FragmentManager, AuthenticationCallback)} does not display
+     * the dialog and notifies success immediately, with the unlocked cipher for
+     * {@link CryptoAuthenticationCallback}. Once the window expires, the dialog is displayed
+     * again automatically.
+     * <p>
+     * Key with a validity window is a different key than the one without it, data encrypted with
+     * one cannot be decrypted with the other.
+     *
+     * @param seconds validity window in seconds, or 0
+     * @return {@link FingerprintDialogBuilder}
+     */
+    public FingerprintDialogBuilder authenticationValidity(final int seconds) {
+        if (seconds < 0) throw new IllegalArgumentException("Validity cannot be negative.");
+        this.validitySeconds = seconds;
+        invalidatePreparedCipher();
+        return this;
+    }
+
+    /**
+     * Set block mode and padding of the cipher unlocked for {@link CryptoAuthenticationCallback}.
+     * Default is {@link CipherMode#CBC_PKCS7}.
+     * <p>
+     * Key of every mode is a different key, data encrypted in one mode cannot be decrypted in
+     * another one.
+     *
+     * @param cipherMode {@link CipherMode}
+     * @return {@link FingerprintDialogBuilder}
+     */
+    public FingerprintDialogBuilder cipherMode(@CipherMode final int cipherMode) {
+        this.cipherMode = cipherMode;
+        invalidatePreparedCipher();
+        return this;
+    }
+
+    /**
+     * Set listener of the phases of every authentication started by this builder, e.g. to report
+     * time to armed sensor and time to result.
+     *
+     * @param listener {@link AuthenticationPhaseListener} or null to remove
+     * @return {@link FingerprintDialogBuilder}
+     */
+    public FingerprintDialogBuilder phaseListener(@Nullable final AuthenticationPhaseListener listener) {
+        this.phaseListener = listener;
+        return this;
+    }
+
+    /**
+     * Set time the sensor of the compat dialog keeps running while the dialog is paused. Default
+     * is 0, sensor is stopped on every pause.
+     * <p>
+     * Pulling down the notification shade or a system dialog pauses the dialog briefly. If the
+     * dialog resumes within the grace period, the armed sensor is kept instead of being stopped
+     * and armed again with a new cipher. Grace period is not used on android P and above, where
+     * {@link BiometricPrompt} handles its own lifecycle.
+     *
+     * @param millis grace period in milliseconds, or 0
+     * @return {@link FingerprintDialogBuilder}
+     */
+    public FingerprintDialogBuilder pauseGracePeriod(final long millis) {
+        if (millis < 0) throw new IllegalArgumentException("Grace period cannot be negative.");
+        this.pauseGraceMillis = millis;
+        return this;
+    }
+
+    /**
+     * Arm the sensor of the compat dialog as soon as
+     * {@link #show(FragmentManager, AuthenticationCallback)} is called. Default is false, sensor
+     * is armed once the dialog is resumed.
+     * <p>
+     * Sensor is armed while the dialog is committed and its enter animation runs, so a finger
+     * already on the sensor is authenticated without waiting for the dialog. Sensor events are
+     * kept until the dialog is displayed. Not used on android P and above, where
+     * {@link BiometricPrompt} arms its own sensor.
+     *
+     * @param armOnShow true to arm the sensor on show
+     * @return {@link FingerprintDialogBuilder}
+     */
+    public FingerprintDialogBuilder armOnShow(final boolean armOnShow) {
+        this.armOnShow = armOnShow;
+        return this;
+    }
+
+    /**
+     * Set deadline of every authentication started by this builder. Once it expires, sensor is
+     * stopped, dialog is dismissed and {@link AuthenticationCallback#onAuthenticationError(int, CharSequence)}
+     * is notified with {@link android.hardware.fingerprint.FingerprintManager#FINGERPRINT_ERROR_TIMEOUT}.
+     * Default is 0, authentication has no deadline.
+     *
+     * @param millis milliseconds from show until the authentication times out, or 0
+     * @return {@link FingerprintDialogBuilder}
+     * @see AuthenticationSession#getState()
+     */
+    public FingerprintDialogBuilder timeout(final long millis) {
+        if (millis < 0) throw new IllegalArgumentException("Timeout cannot be negative.");
+        this.timeoutMillis = millis;
+        return this;
+    }
+
+    /**
+     * Set executor the {@link AuthenticationCallback} events are delivered on, e.g. to decrypt
+     * and parse a token in {@link CryptoAuthenticationCallback} without blocking the dialog.
+     * Default is null, events are delivered on the main thread.
+     * <p>
+     * Dialog is still driven by the main thread. Events are delivered one at a time, in the
+     * order the sensor reported them, even if the executor runs tasks in parallel. Future of
+     * {@link #authenticate(FragmentManager, boolean)} is still completed on the main thread.
+     *
+     * @param executor {@link Executor} of the callback events, or null for the main thread
+     * @return {@link FingerprintDialogBuilder}
+     */
+    public FingerprintDialogBuilder callbackExecutor(@Nullable final Executor executor) {
+        this.callbackExecutor = executor;
+        return this;
+    }
+
+    /**
+     * Start preparing the authentication key and cipher on background thread.
+     * <p>
+     * Builder calls this when it is created. Application may call it again to prepare a cipher
+     * for the next {@link #show(FragmentManager, AuthenticationCallback)} in advance, so sensor
+     * is armed without waiting for the key store.
+     *
+     * @return {@link FingerprintDialogBuilder}
+     */
+    public FingerprintDialogBuilder prepare() {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.M && preparedCipher == null) {
+            preparedCipher = PreparedCipher.prepare(cipherConfig());
+        }
+        return this;
+    }
+
+    /**
+     * Release the cipher prepared in advance, e.g. when the screen of the builder is destroyed
+     * without displaying the dialog. Prepared cipher holds an initialized key store operation,
+     * and the key store limits the number of operations running at once.
+     * <p>
+     * Builder can still be shown after this, the cipher is prepared again.
+     */
+    public void release() {
+        if (preparedCipher != null) {
+            preparedCipher.discard();
+            preparedCipher = null;
+        }
+    }
+
+    /**
+     * @return {@link CipherConfig} of the current key and mode
+     */
+    @NonNull
+    private CipherConfig cipherConfig() {
+        return new CipherConfig(keyName, validitySeconds, cipherMode, iv);
+    }
+
+    /**
+     * Discard prepared cipher if it does not match the current key and mode, and prepare again.
+     */
+    private void invalidatePreparedCipher() {
+        if (preparedCipher != null && !preparedCipher.matches(cipherConfig())) {
+            release();
+            prepare();
+        }
+    }
+
+    /**
+     * Take prepared cipher, it can be used by one dialog only. Cipher is prepared again if it
+     * does not match the current key and mode, or if its preparation failed, e.g. key store was
+     * not accessible or validity window expired since.
+     *
+     * @return {@link PreparedCipher}
+     */
+    @NonNull
+    private PreparedCipher takePreparedCipher() {
+        if (preparedCipher != null
+                && (preparedCipher.isFailed() || !preparedCipher.matches(cipherConfig()))) {
+            release();
+        }
+        prepare();
+        final PreparedCipher preparedCipher = this.preparedCipher;
+        this.preparedCipher = null;
+        return preparedCipher;
+    }
+
     /**
      * Build {@link FingerprintDialogCompatV23}.
      * <p>
      * The dialog will be displayed for android version M and above.
+     * <p>
+     * If an authentication with the same key and mode is already running in the process, e.g.
+     * on a double tap, no other dialog is displayed. Callback joins the running authentication
+     * and is notified with its events. Only one cipher is unlocked by the authentication, it is
+     * handed to the first {@link CryptoAuthenticationCallback}; other callbacks are notified by
+     * {@link AuthenticationCallback#onAuthenticationSucceeded()}.
+     *
+     * @return {@link AuthenticationSession} to cancel the authentication or check its state
      */
-    public void show(@NonNull final FragmentManager manager,
-                     @NonNull final AuthenticationCallback callback) {
+    @NonNull
+    public AuthenticationSession show(@NonNull final FragmentManager manager,
+                                      @NonNull final AuthenticationCallback authenticationCallback) {
+        return show(manager, authenticationCallback, callbackExecutor);
+    }
+
+    /**
+     * Build {@link FingerprintDialogCompatV23}, see {@link #show(FragmentManager, AuthenticationCallback)}.
+     *
+     * @param manager                {@link FragmentManager} to display the dialog
+     * @param authenticationCallback {@link AuthenticationCallback} to notify
+     * @param callbackExecutor       {@link Executor} of the callback events, or null for the
+     *                               main thread
+     * @return {@link AuthenticationSession} to cancel the authentication or check its state
+     */
+    @NonNull
+    private AuthenticationSession show(@NonNull final FragmentManager manager,
+                                       @NonNull final AuthenticationCallback authenticationCallback,
+                                       @Nullable final Executor callbackExecutor) {
+        final AuthenticationTrace trace = new AuthenticationTrace(phaseListener);
+        trace.mark(AuthenticationPhase.SHOW_CALLED);
+        final AuthenticationSession session = new AuthenticationSession(timeoutMillis);
+        final AuthenticationCallback callback = session.wrap(callbackExecutor != null
+                ? new ExecutorCallback(authenticationCallback, callbackExecutor)
+                : authenticationCallback);
+
+        // outcome of a flight is traced by the flight, outcome of the checks before it is traced here
+        final AuthenticationCallback tracedCallback = new TracingCallback(callback, trace);
+
         // validate title
         if (TextUtils.isEmpty(title)) {
             throw new IllegalArgumentException(context.getString(R.string.title_warning));
@@ -174,55 +496,267 @@ public class FingerprintDialogBuilder {
             buttonTitle = context.getString(android.R.string.cancel);
         }
 
+        final FingerprintCapabilities capabilities = FingerprintCapabilities.get(context);
+
         // check if android version supports fingerprint authentication
-        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.M) {
-            callback.fingerprintAuthenticationNotSupported();
-            return;
+        if (!capabilities.isApiSupported()) {
+            tracedCallback.fingerprintAuthenticationNotSupported();
+            return session;
         }
 
         // check if device has fingerprint sensor
-        if (!FingerprintUtils.hardwareSupported(context)) {
-            callback.fingerprintAuthenticationNotSupported();
-            return;
+        if (!capabilities.isHardwareDetected()) {
+            tracedCallback.fingerprintAuthenticationNotSupported();
+            return session;
         }
 
         // check if there are any fingerprints enrolled
-        if (!FingerprintUtils.fingerprintEnrolled(context)) {
-            callback.noEnrolledFingerprints();
+        if (!capabilities.hasEnrolledFingerprints()) {
+            tracedCallback.noEnrolledFingerprints();
+            return session;
+        }
+        trace.mark(AuthenticationPhase.CAPABILITIES_CHECKED);
+
+        // concurrent authentications of the same key share one dialog
+        final AuthenticationCoordinator.Flight flight = AuthenticationCoordinator.join(
+                cipherConfig(), callback, session, trace);
+        if (flight == null) return session;
+
+        try {
+            if (validitySeconds > 0) {
+                showIfNotAuthenticated(manager, flight.getCallback(), trace, flight.getSession());
+            } else {
+                showDialog(manager, flight.getCallback(), cipherConfig(), takePreparedCipher(), trace,
+                        flight.getSession());
+            }
+        } catch (RuntimeException e) {
+            // dialog cannot be displayed, flight is over
+            session.cancel();
+            throw e;
+        }
+        return session;
+    }
+
+    /**
+     * Build {@link FingerprintDialogCompatV23} and get its outcome as a future, so the
+     * authentication can run together with other work of the application.
+     *
+     * @param manager      {@link FragmentManager} to display the dialog
+     * @param unlockCipher true to complete the outcome of a successful authentication with the
+     *                     unlocked cipher, see {@link AuthenticationOutcome#getCipher()}
+     * @return {@link AuthenticationFuture} completed on the main thread, also if a
+     * {@link #callbackExecutor(Executor)} is set; listeners of the future run on their own executor
+     */
+    @NonNull
+    public AuthenticationFuture authenticate(@NonNull final FragmentManager manager,
+                                             final boolean unlockCipher) {
+        final AuthenticationFuture future = new AuthenticationFuture();
+        // future hands the outcome over to any thread itself, no callback executor is needed
+        future.setSession(show(manager, future.callback(unlockCipher), null));
+        return future;
+    }
+
+    /**
+     * Display the dialog based on the android version.
+     *
+     * @param manager        {@link FragmentManager} to display the dialog
+     * @param callback       {@link AuthenticationCallback} to notify
+     * @param cipherConfig   {@link CipherConfig} of the cipher to unlock, or null to authenticate
+     *                       without a cipher
+     * @param preparedCipher cipher prepared with the config, or null
+     * @param trace          {@link AuthenticationTrace} of the authentication
+     * @param session        {@link AuthenticationSession} of the authentication
+     */
+    private void showDialog(@NonNull final FragmentManager manager,
+                            @NonNull final AuthenticationCallback callback,
+                            @Nullable final CipherConfig cipherConfig,
+                            @Nullable final PreparedCipher preparedCipher,
+                            @NonNull final AuthenticationTrace trace,
+                            @NonNull final AuthenticationSession session) {
+        if (!session.isActive()) {
+            // canceled while the validity window was checked
+            if (preparedCipher != null) preparedCipher.discard();
             return;
         }
 
         if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.P) {
-            showFingerprintDialog(callback);
+            if (preparedCipher != null) {
+                showFingerprintDialog(callback, preparedCipher, trace, session);
+            } else {
+                showFingerprintDialog(callback, (Cipher) null, trace, session);
+            }
         } else {
             final FingerprintDialogCompatV23 fpd = FingerprintDialogCompatV23.createDialog(
                     title,
                     subTitle,
                     description,
-                    buttonTitle);
-            fpd.setAuthenticationCallback(callback);
-            fpd.show(manager, FingerprintDialogCompatV23.class.getName());
+                    buttonTitle,
+                    cipherConfig);
+            fpd.setTrace(trace);
+            fpd.setPauseGracePeriod(pauseGraceMillis);
+            final SensorSession sensorSession = SensorSession.create(callback, trace, preparedCipher);
+            if (armOnShow) {
+                sensorSession.start(context, FingerprintCapabilities.get(context), cipherConfig);
+                if (sensorSession.isOver()) {
+                    // caller is notified already
+                    sensorSession.release();
+                    return;
+                }
+            }
+            fpd.setSession(sensorSession);
+            try {
+                fpd.show(manager, FingerprintDialogCompatV23.class.getName());
+            } catch (RuntimeException e) {
+                // caller gets the exception instead of a result
+                sensorSession.cancel();
+                sensorSession.release();
+                throw e;
+            }
+            session.setCanceller(new AuthenticationSession.Canceller() {
+                @Override
+                public void cancel() {
+                    sensorSession.cancel();
+                }
+            });
+        }
+    }
+
+    /**
+     * Notify success without displaying the dialog if the key is in its validity window, display
+     * the dialog otherwise.
+     *
+     * @param manager  {@link FragmentManager} to display the dialog
+     * @param callback {@link AuthenticationCallback} to notify
+     * @param trace    {@link AuthenticationTrace} of the authentication
+     * @param session  {@link AuthenticationSession} of the authentication
+     */
+    private void showIfNotAuthenticated(@NonNull final FragmentManager manager,
+                                        @NonNull final AuthenticationCallback callback,
+                                        @NonNull final AuthenticationTrace trace,
+                                        @NonNull final AuthenticationSession session) {
+        final CipherConfig cipherConfig = cipherConfig();
+        final PreparedCipher preparedCipher = takePreparedCipher();
+        preparedCipher.whenReady(new PreparedCipher.Listener() {
+            @Override
+            public void onCipherReady(@Nullable final Cipher cipher) {
+                if (!session.isActive()) {
+                    if (cipher != null) FingerprintKeyManager.releaseCipher(cipher);
+                } else if (cipher != null) {
+                    trace.mark(AuthenticationPhase.CIPHER_READY);
+                    // user is authenticated within the validity window
+                    Callbacks.notifySucceeded(callback, cipher);
+                } else if (preparedCipher.isAuthenticationRequired()) {
+                    // validity window expired, key is usable again once user authenticates
+                    showDialog(manager, new ValidityWindowCallback(callback, cipherConfig), null, null,
+                            trace, session);
+                } else if (preparedCipher.isKeyInvalidated()) {
+                    callback.onAuthenticationError(ErrorCode.KEY_INVALIDATED, null);
+                } else {
+                    //Cannot access the secure keystore.
+                    callback.fingerprintAuthenticationNotSupported();
+                }
+            }
+        });
+    }
+
+    /**
+     * Decrypt a batch of secrets with a single fingerprint authentication.
+     * <p>
+     * Every secret must be encrypted with the key of {@link #keyName(String)}, e.g. with the
+     * {@link CipherStream} of a {@link CryptoAuthenticationCallback}. All secrets are decrypted
+     * in one pass with the cipher unlocked by the authentication.
+     * <p>
+     * Batch can be decrypted in {@link CipherMode#CBC_PKCS7} mode only.
+     *
+     * @param manager  {@link FragmentManager} to display the dialog
+     * @param secrets  secrets to decrypt
+     * @param callback {@link BatchUnlockCallback} to get the decrypted secrets
+     * @return {@link AuthenticationSession} to cancel the authentication or check its state
+     */
+    @NonNull
+    public AuthenticationSession showBatchUnlock(@NonNull final FragmentManager manager,
+                                @NonNull final List<EncryptedSecret> secrets,
+                                @NonNull final BatchUnlockCallback callback) {
+        if (cipherMode != CipherMode.CBC_PKCS7) {
+            throw new IllegalStateException("Batch can be unlocked in CBC_PKCS7 mode only.");
         }
+        final BatchUnlock batchUnlock = new BatchUnlock(secrets, callback, callbackExecutor);
+
+        // cipher of the batch is initialized with the iv of the first secret
+        final byte[] iv = this.iv;
+        decrypt(batchUnlock.getIv());
+        try {
+            return show(manager, batchUnlock);
+        } finally {
+            // cipher prepared with the iv of the batch must not be used by the next dialog
+            this.iv = iv;
+            invalidatePreparedCipher();
+        }
+    }
+
+    @TargetApi(Build.VERSION_CODES.P)
+    private void showFingerprintDialog(@NonNull final AuthenticationCallback callback,
+                                       @NonNull final PreparedCipher preparedCipher,
+                                       @NonNull final AuthenticationTrace trace,
+                                       @NonNull final AuthenticationSession session) {
+        // prompt is displayed once the cipher is ready
+        preparedCipher.whenReady(new PreparedCipher.Listener() {
+            @Override
+            public void onCipherReady(@Nullable final Cipher cipher) {
+                if (cipher != null) trace.mark(AuthenticationPhase.CIPHER_READY);
+                if (!session.isActive()) {
+                    // canceled while the cipher was prepared
+                    if (cipher != null) FingerprintKeyManager.releaseCipher(cipher);
+                } else if (cipher == null && preparedCipher.isKeyInvalidated()) {
+                    callback.onAuthenticationError(ErrorCode.KEY_INVALIDATED, null);
+                } else if (cipher == null && Callbacks.wantsCipher(callback)) {
+                    //Cannot access the secure keystore.
+                    callback.fingerprintAuthenticationNotSupported();
+                } else {
+                    showFingerprintDialog(callback, cipher, trace, session);
+                }
+            }
+        });
     }
 
     @SuppressLint("MissingPermission")
     @TargetApi(Build.VERSION_CODES.P)
-    private void showFingerprintDialog(@NonNull final AuthenticationCallback callback) {
+    private void showFingerprintDialog(@NonNull final AuthenticationCallback callback,
+                                       @Nullable final Cipher cipher,
+                                       @NonNull final AuthenticationTrace trace,
+                                       @NonNull final AuthenticationSession session) {
         final Executor executor = context.getMainExecutor();
         final DialogInterface.OnClickListener listener = new DialogInterface.OnClickListener() {
             @Override
             public void onClick(DialogInterface dialog, int which) {
+                if (cipher != null) FingerprintKeyManager.releaseCipher(cipher);
                 callback.authenticationCanceledByUser();
             }
         };
-        final AuthenticationCallbackV28 callbackV28 = new AuthenticationCallbackV28(callback);
+        final AuthenticationCallbackV28 callbackV28 = new AuthenticationCallbackV28(callback, cipher);
 
-        new BiometricPrompt.Builder(context)
+        final BiometricPrompt prompt = new BiometricPrompt.Builder(context)
                 .setTitle(title)
                 .setSubtitle(subTitle)
                 .setDescription(description)
                 .setNegativeButton(buttonTitle, executor, listener)
-                .build()
-                .authenticate(new CancellationSignal(), executor, callbackV28);
+                .build();
+        trace.mark(AuthenticationPhase.VIEW_INFLATED);
+        final CancellationSignal cancellationSignal = new CancellationSignal();
+        if (cipher != null) {
+            prompt.authenticate(new BiometricPrompt.CryptoObject(cipher), cancellationSignal,
+                    executor, callbackV28);
+        } else {
+            prompt.authenticate(cancellationSignal, executor, callbackV28);
+        }
+        trace.mark(AuthenticationPhase.SENSOR_ARMED);
+
+        // prompt releases the cipher once it reports the cancellation
+        session.setCanceller(new AuthenticationSession.Canceller() {
+            @Override
+            public void cancel() {
+                cancellationSignal.cancel();
+            }
+        });
     }
 }
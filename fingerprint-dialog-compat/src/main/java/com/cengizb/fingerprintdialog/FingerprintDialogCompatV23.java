@@ -1,23 +1,17 @@
 package com.cengizb.fingerprintdialog;
 
 import android.annotation.TargetApi;
+import android.app.Activity;
 import android.app.Dialog;
 import android.content.Context;
-import android.content.pm.PackageManager;
+import android.content.DialogInterface;
+import android.graphics.Bitmap;
 import android.graphics.Color;
 import android.graphics.drawable.ColorDrawable;
-import android.graphics.drawable.Drawable;
-import android.hardware.fingerprint.FingerprintManager;
 import android.os.Build;
 import android.os.Bundle;
-import android.os.CancellationSignal;
-import android.os.Handler;
-import android.os.Looper;
-import android.security.keystore.KeyGenParameterSpec;
-import android.security.keystore.KeyProperties;
 import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
-import android.support.annotation.RequiresApi;
 import android.support.v4.app.DialogFragment;
 import android.support.v7.widget.AppCompatButton;
 import android.support.v7.widget.AppCompatImageView;
@@ -29,22 +23,6 @@ import android.view.ViewGroup;
 import android.view.Window;
 import android.view.WindowManager;
 
-import java.io.IOException;
-import java.security.InvalidAlgorithmParameterException;
-import java.security.InvalidKeyException;
-import java.security.KeyStore;
-import java.security.KeyStoreException;
-import java.security.NoSuchAlgorithmException;
-import java.security.NoSuchProviderException;
-import java.security.UnrecoverableKeyException;
-import java.security.cert.CertificateException;
-import java.util.UUID;
-
-import javax.crypto.Cipher;
-import javax.crypto.KeyGenerator;
-import javax.crypto.NoSuchPaddingException;
-import javax.crypto.SecretKey;
-
 /**
  * Created by cengizb on 30.05.2019
  * <p>
@@ -56,34 +34,68 @@ import javax.crypto.SecretKey;
 @SuppressWarnings("deprecation")
 @TargetApi(Build.VERSION_CODES.M)
 public class FingerprintDialogCompatV23 extends DialogFragment {
-    private static final String KEY_NAME = UUID.randomUUID().toString();
-
     // keys of arguments
     private static final String ARG_TITLE = "arg_title";
     private static final String ARG_SUBTITLE = "arg_subtitle";
     private static final String ARG_NEGATIVE_BUTTON_TITLE = "arg_negative_button_title";
     private static final String ARG_DESCRIPTION = "arg_description";
+    private static final String ARG_SESSION_ID = "arg_session_id";
+    private static final String ARG_PAUSE_GRACE_MILLIS = "arg_pause_grace_millis";
 
     // activity context
     private Context context;
 
-    // for fingerprint authentication key
-    private KeyStore keyStore;
-    //
-    private Cipher cipher;
+    // dialog was resumed before, capabilities are queried again on next resume
+    private boolean resumed = false;
 
-    // fingerprint scan is running
-    private boolean isScanning = false;
+    // notify caller about authentication status, handed over to the session
+    @Nullable
+    private AuthenticationCallback callback;
 
-    private AppCompatTextView statusText;
+    // cipher for fingerprint authentication prepared by the builder, handed over to the session
+    @Nullable
+    private PreparedCipher preparedCipher;
 
-    // notify caller about authentication status
-    private AuthenticationCallback callback;
+    // authentication of the dialog, kept across configuration changes
+    @Nullable
+    private SensorSession session;
+
+    // phases of the authentication
+    @Nullable
+    private AuthenticationTrace trace;
+
+    // displays help, failure and error texts
+    private final StatusTextScheduler statusTextScheduler = new StatusTextScheduler(
+            new StatusTextScheduler.Listener() {
+                @Override
+                public void onStatusTextCleared(final boolean dismiss) {
+                    final Dialog dialog = getDialog();
+                    if (dismiss && dialog != null && dialog.isShowing()) closeDialog();
+                }
+            });
 
-    // cancellation signal for fingerprint authentication
-    private CancellationSignal cancellationSignal;
+    // displays events of the session
+    private final SensorSession.Listener sensorListener = new SensorSession.Listener() {
+        @Override
+        public void onSensorHelp(@NonNull final CharSequence help) {
+            statusTextScheduler.showHelp(help);
+        }
+
+        @Override
+        public void onSensorFailed() {
+            statusTextScheduler.show(getString(R.string.fingerprint_not_recognised), false);
+        }
 
-    private Runnable statusTextRunnable;
+        @Override
+        public void onSensorError(@NonNull final CharSequence error) {
+            statusTextScheduler.show(error, true);
+        }
+
+        @Override
+        public void onSensorFinished() {
+            closeDialog();
+        }
+    };
 
     /**
      * Create new instance of {@link FingerprintDialogCompatV23}.
@@ -92,12 +104,15 @@ public class FingerprintDialogCompatV23 extends DialogFragment {
      * @param subtitle            dialog subtitle of which only two lines will be displayed
      * @param description         dialog description of which only four lines will be displayed
      * @param negativeButtonTitle dialog negative/cancel button title
+     * @param cipherConfig        {@link CipherConfig} of the cipher to unlock, or null to
+     *                            authenticate without a cipher
      * @return {@link FingerprintDialogCompatV23}
      */
     static FingerprintDialogCompatV23 createDialog(@NonNull String title,
                                                    @NonNull String subtitle,
                                                    @NonNull String description,
-                                                   @NonNull String negativeButtonTitle) {
+                                                   @NonNull String negativeButtonTitle,
+                                                   @Nullable CipherConfig cipherConfig) {
         FingerprintDialogCompatV23 dialog = new FingerprintDialogCompatV23();
         // set arguments
         Bundle bundle = new Bundle();
@@ -105,6 +120,7 @@ public class FingerprintDialogCompatV23 extends DialogFragment {
         bundle.putString(ARG_SUBTITLE, subtitle);
         bundle.putString(ARG_DESCRIPTION, description);
         bundle.putString(ARG_NEGATIVE_BUTTON_TITLE, negativeButtonTitle);
+        if (cipherConfig != null) cipherConfig.writeTo(bundle);
         dialog.setArguments(bundle);
         return dialog;
     }
@@ -114,6 +130,10 @@ public class FingerprintDialogCompatV23 extends DialogFragment {
     public View onCreateView(@NonNull final LayoutInflater inflater,
                              @Nullable final ViewGroup container,
                              @Nullable final Bundle savedInstanceState) {
+        // view inflated in advance by the builder, or by a previous dialog of the activity
+        final View pooled = DialogViewPool.take(getActivity());
+        if (pooled != null) return pooled;
+
         LayoutInflater li = LayoutInflater.from(getContext());
         return li.inflate(R.layout.fingerprint_compat_dialog, container, false);
     }
@@ -155,25 +175,42 @@ public class FingerprintDialogCompatV23 extends DialogFragment {
         if (arguments.containsKey(ARG_NEGATIVE_BUTTON_TITLE)) {
             String text = arguments.getString(ARG_NEGATIVE_BUTTON_TITLE);
             button.setText(text);
+        } else {
+            // pooled view may keep title of the previous dialog
+            button.setText(android.R.string.cancel);
         }
         button.setOnClickListener(new View.OnClickListener() {
             @Override
             public void onClick(final View view) {
-                // close dialog
+                // user canceled the authentication
+                if (session != null) session.cancelByUser();
                 closeDialog();
             }
         });
 
-        // set application drawable
-        try {
-            AppCompatImageView appIcon = view.findViewById(R.id.app_icon_iv);
-            appIcon.setImageDrawable(getApplicationIcon(context));
-        } catch (Exception e) {
-            throw new IllegalStateException(e.getMessage());
-        }
+        // set application icon and fingerprint symbol, loaded in advance by the builder
+        final AppCompatImageView appIcon = view.findViewById(R.id.app_icon_iv);
+        DialogIconCache.getAppIcon(context, new DialogIconCache.Listener() {
+            @Override
+            public void onIconReady(@Nullable final Bitmap icon) {
+                appIcon.setImageBitmap(icon);
+            }
+        });
+        final AppCompatImageView fingerprintSymbol = view.findViewById(R.id.fingerprint_symbol_iv);
+        DialogIconCache.getFingerprintIcon(context, new DialogIconCache.Listener() {
+            @Override
+            public void onIconReady(@Nullable final Bitmap icon) {
+                fingerprintSymbol.setImageBitmap(icon);
+            }
+        });
 
         // status text
-        statusText = view.findViewById(R.id.fingerprint_status_tv);
+        final AppCompatTextView statusText = view.findViewById(R.id.fingerprint_status_tv);
+        statusTextScheduler.attach(statusText);
+
+        // pooled view may be scrolled by the previous dialog
+        view.scrollTo(0, 0);
+        AuthenticationTrace.mark(trace, AuthenticationPhase.VIEW_INFLATED);
     }
 
     @Override
@@ -199,20 +236,43 @@ public class FingerprintDialogCompatV23 extends DialogFragment {
     public void onResume() {
         super.onResume();
 
-        // check if device has fingerprint supported hardware
-        if (FingerprintUtils.hardwareSupported(context)) {
-            // start fingerprint authentication
-            startAuth();
-        } else {
-            callback.fingerprintAuthenticationNotSupported();
-            closeDialog();
+        final SensorSession session = session();
+        if (session == null) {
+            // process was restarted, caller of the authentication is gone
+            dismiss();
+            return;
         }
+        session.attach(sensorListener);
+
+        // session kept running while the dialog was recreated
+        if (session.isStarted()) return;
+
+        // first resume uses the snapshot builder checked, later resumes may follow a visit to
+        // security settings
+        final FingerprintCapabilities capabilities = resumed
+                ? FingerprintCapabilities.refresh(context)
+                : FingerprintCapabilities.get(context);
+        resumed = true;
+
+        // start fingerprint authentication, dialog is closed if device has no supported hardware
+        session.start(context, capabilities, CipherConfig.readFrom(getArguments()));
     }
 
     @Override
     public void onPause() {
         super.onPause();
-        stopAuthIfRunning();
+        statusTextScheduler.cancel();
+        if (session != null && !isChangingConfigurations()) {
+            final Bundle arguments = getArguments();
+            session.suspend(arguments != null ? arguments.getLong(ARG_PAUSE_GRACE_MILLIS) : 0);
+        }
+    }
+
+    @Override
+    public void onCancel(final DialogInterface dialog) {
+        super.onCancel(dialog);
+        // back press or touch outside, user canceled the authentication
+        if (session != null) session.cancelByUser();
     }
 
     @Override
@@ -224,13 +284,21 @@ public class FingerprintDialogCompatV23 extends DialogFragment {
     @Override
     public void onDetach() {
         super.onDetach();
-        stopAuthIfRunning();
+        if (session != null && !isChangingConfigurations()) session.stop();
     }
 
     @Override
     public void onDestroyView() {
+        final View view = getView();
         super.onDestroyView();
-        stopAuthIfRunning();
+        if (session != null) session.detach(isChangingConfigurations());
+        if (view != null) DialogViewPool.release(getActivity(), view);
+    }
+
+    @Override
+    public void onDestroy() {
+        super.onDestroy();
+        if (session != null && !isChangingConfigurations()) session.release();
     }
 
     @Override
@@ -242,7 +310,7 @@ public class FingerprintDialogCompatV23 extends DialogFragment {
     /**
      * Set {@link AuthenticationCallback} for notifying fingerprint authentication status.
      * <p>
-     * Application must call {@link #createDialog(String, String, String, String)}.
+     * Application must call {@link #createDialog(String, String, String, String, CipherConfig)}.
      *
      * @param callback {@link AuthenticationCallback}
      */
@@ -251,214 +319,79 @@ public class FingerprintDialogCompatV23 extends DialogFragment {
     }
 
     /**
-     * Generate authentication key.
+     * Set cipher prepared in advance by {@link FingerprintDialogBuilder}.
      *
-     * @return true if key generated successfully
+     * @param preparedCipher {@link PreparedCipher}
      */
-    @TargetApi(Build.VERSION_CODES.M)
-    private boolean generateKey() {
-        keyStore = null;
-        KeyGenerator keyGenerator;
-
-        // get instance of the key store
-        try {
-            keyStore = KeyStore.getInstance("AndroidKeyStore");
-            keyGenerator = KeyGenerator.getInstance(KeyProperties.KEY_ALGORITHM_AES, "AndroidKeyStore");
-        } catch (NoSuchAlgorithmException | NoSuchProviderException | KeyStoreException e) {
-            return false;
-        }
-
-        // generate key
-        try {
-            keyStore.load(null);
-            keyGenerator.init(new KeyGenParameterSpec.Builder(KEY_NAME,
-                    KeyProperties.PURPOSE_ENCRYPT | KeyProperties.PURPOSE_DECRYPT)
-                    .setBlockModes(KeyProperties.BLOCK_MODE_CBC)
-                    .setUserAuthenticationRequired(true)
-                    .setEncryptionPaddings(KeyProperties.ENCRYPTION_PADDING_PKCS7)
-                    .build());
-            keyGenerator.generateKey();
-
-            return true;
-        } catch (NoSuchAlgorithmException
-                | InvalidAlgorithmParameterException
-                | CertificateException
-                | IOException e) {
-            return false;
-        }
+    void setPreparedCipher(@Nullable final PreparedCipher preparedCipher) {
+        this.preparedCipher = preparedCipher;
     }
 
-    @TargetApi(Build.VERSION_CODES.M)
-    @Nullable
-    private FingerprintManager.CryptoObject getCryptoObject() {
-        return cipherInit() ? new FingerprintManager.CryptoObject(cipher) : null;
+    /**
+     * Set session armed by {@link FingerprintDialogBuilder} before the dialog is displayed, see
+     * {@link FingerprintDialogBuilder#armOnShow(boolean)}.
+     *
+     * @param session {@link SensorSession}
+     */
+    void setSession(@NonNull final SensorSession session) {
+        this.session = session;
+        final Bundle arguments = getArguments();
+        if (arguments != null) arguments.putInt(ARG_SESSION_ID, session.getId());
     }
 
     /**
-     * Initialize cipher.
+     * Set time the sensor keeps running while the dialog is paused, see
+     * {@link FingerprintDialogBuilder#pauseGracePeriod(long)}.
      *
-     * @return true if initialization is successful
+     * @param millis grace period in milliseconds, or 0
      */
-    @TargetApi(Build.VERSION_CODES.M)
-    private boolean cipherInit() {
-        boolean isKeyGenerated = generateKey();
-
-        if (!isKeyGenerated) return false;
-
-        try {
-            cipher = Cipher.getInstance(KeyProperties.KEY_ALGORITHM_AES + "/"
-                    + KeyProperties.BLOCK_MODE_CBC + "/"
-                    + KeyProperties.ENCRYPTION_PADDING_PKCS7);
-        } catch (NoSuchAlgorithmException |
-                NoSuchPaddingException e) {
-            return false;
-        }
-
-        try {
-            keyStore.load(null);
-            SecretKey key = (SecretKey) keyStore.getKey(KEY_NAME, null);
-            cipher.init(Cipher.ENCRYPT_MODE, key);
-            return true;
-        } catch (KeyStoreException | CertificateException
-                | UnrecoverableKeyException | IOException
-                | NoSuchAlgorithmException | InvalidKeyException e) {
-            return false;
-        }
+    void setPauseGracePeriod(final long millis) {
+        final Bundle arguments = getArguments();
+        if (arguments != null) arguments.putLong(ARG_PAUSE_GRACE_MILLIS, millis);
     }
 
     /**
-     * Start fingerprint authentication by enabling the finger print sensor.
-     * <p>
-     * Note: Use this function in the onResume() of the activity/fragment. Never forget to call
-     * {@link #stopAuthIfRunning()} in onPause() of the activity/fragment.
+     * Set trace of the authentication started by {@link FingerprintDialogBuilder}.
+     *
+     * @param trace {@link AuthenticationTrace}
      */
-    @TargetApi(Build.VERSION_CODES.M)
-    private void startAuth() {
-        if (isScanning) stopAuthIfRunning();
-        final FingerprintManager fpm;
-        fpm = (FingerprintManager) context.getSystemService(Context.FINGERPRINT_SERVICE);
-
-        //Cannot access the fingerprint manager.
-        if (fpm == null) {
-            callback.fingerprintAuthenticationNotSupported();
-            return;
-        }
-
-        //No fingerprint enrolled.
-        if (!fpm.hasEnrolledFingerprints()) {
-            callback.noEnrolledFingerprints();
-            return;
-        }
-
-        final FingerprintManager.CryptoObject co = getCryptoObject();
-        if (co != null) {
-            final FingerprintManager.AuthenticationCallback authCallback = new FingerprintManager.AuthenticationCallback() {
-                @Override
-                public void onAuthenticationError(int errMsgId, CharSequence errString) {
-                    displayStatusText(errString.toString(), true);
-
-                    switch (errMsgId) {
-                        case FingerprintManager.FINGERPRINT_ERROR_CANCELED:
-                        case FingerprintManager.FINGERPRINT_ERROR_USER_CANCELED:
-                            callback.authenticationCanceledByUser();
-                            break;
-                        case FingerprintManager.FINGERPRINT_ERROR_HW_NOT_PRESENT:
-                        case FingerprintManager.FINGERPRINT_ERROR_HW_UNAVAILABLE:
-                            callback.fingerprintAuthenticationNotSupported();
-                            break;
-                        default:
-                            callback.onAuthenticationError(errMsgId, errString);
-                    }
-                }
-
-                @Override
-                public void onAuthenticationHelp(int helpMsgId, CharSequence helpString) {
-                    displayStatusText(helpString.toString(), false);
-                    callback.onAuthenticationHelp(helpMsgId, helpString);
-                }
-
-                @Override
-                public void onAuthenticationFailed() {
-                    displayStatusText(getString(R.string.fingerprint_not_recognised), false);
-                    callback.onAuthenticationFailed();
-                }
-
-                @Override
-                public void onAuthenticationSucceeded(FingerprintManager.AuthenticationResult result) {
-                    callback.onAuthenticationSucceeded();
-                    closeDialog();
-                }
-            };
-
-            cancellationSignal = new CancellationSignal();
-
-            Looper mainLooper = Looper.getMainLooper();
-            Handler handler = new Handler(mainLooper);
-            fpm.authenticate(co, cancellationSignal, 0, authCallback, handler);
-        } else {
-            //Cannot access the secure keystore.
-            callback.fingerprintAuthenticationNotSupported();
-            closeDialog();
-        }
+    void setTrace(@Nullable final AuthenticationTrace trace) {
+        this.trace = trace;
     }
 
     /**
-     * Stop fingerprint authentication if running
+     * Get session of the dialog. Session is created on the first resume unless the builder armed
+     * it on show, and found by the id in the arguments once the dialog is recreated.
+     *
+     * @return {@link SensorSession} or null if it is released
      */
-    @RequiresApi(api = Build.VERSION_CODES.JELLY_BEAN)
-    private void stopAuthIfRunning() {
-        if (statusTextRunnable != null) {
-            new Handler().removeCallbacks(statusTextRunnable);
-            statusTextRunnable = null;
-        }
+    @Nullable
+    private SensorSession session() {
+        if (session != null) return session;
 
-        if (cancellationSignal != null) {
-            isScanning = false;
-            cancellationSignal.cancel();
-            cancellationSignal = null;
+        final Bundle arguments = getArguments();
+        if (arguments == null) throw new IllegalStateException(getString(R.string.argument_error));
+        if (arguments.containsKey(ARG_SESSION_ID)) {
+            session = SensorSession.find(arguments.getInt(ARG_SESSION_ID));
+        } else if (callback != null) {
+            session = SensorSession.create(callback, trace, preparedCipher);
+            preparedCipher = null;
+            arguments.putInt(ARG_SESSION_ID, session.getId());
         }
-    }
-
-    private void closeDialog() {
-        stopAuthIfRunning();
-        dismiss();
+        return session;
     }
 
     /**
-     * Display text in the {@link #statusText} for 1 second.
-     *
-     * @param status  status text to display
-     * @param dismiss true if dialog should dismiss after status text displayed
+     * @return true if the dialog is destroyed to be recreated with a new configuration
      */
-    private void displayStatusText(@NonNull final String status, final boolean dismiss) {
-        statusText.setText(status);
-        statusTextRunnable = new Runnable() {
-            @Override
-            public void run() {
-                Dialog dialog = getDialog();
-                if (dialog != null && dialog.isShowing()) {
-                    statusText.setText("");
-                    if (dismiss) closeDialog();
-                }
-            }
-        };
-        new Handler().postDelayed(statusTextRunnable, 1000);
+    private boolean isChangingConfigurations() {
+        final Activity activity = getActivity();
+        return activity != null && activity.isChangingConfigurations();
     }
 
-    /**
-     * Get application icon.
-     *
-     * @param context {@link Context} caller context
-     * @return {@link Drawable} application icon
-     * @throws PackageManager.NameNotFoundException if package npt found.
-     */
-    @NonNull
-    private Drawable getApplicationIcon(@NonNull final Context context) throws PackageManager.NameNotFoundException {
-        try {
-            return context.getPackageManager().getApplicationIcon(context.getPackageName());
-        } catch (PackageManager.NameNotFoundException e) {
-            e.printStackTrace();
-            throw e;
-        }
+    private void closeDialog() {
+        statusTextScheduler.cancel();
+        if (session != null) session.release();
+        dismiss();
     }
 }
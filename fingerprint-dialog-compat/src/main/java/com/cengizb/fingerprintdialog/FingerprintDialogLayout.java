@@ -0,0 +1,183 @@
+package com.cengizb.fingerprintdialog;
+
+import android.content.Context;
+import android.support.annotation.NonNull;
+import android.util.AttributeSet;
+import android.view.View;
+import android.view.ViewGroup;
+
+/**
+ * Created by cengizb on 18.10.2026
+ * <p>
+ * Flat layout of the compat dialog which measures every child once.
+ * <p>
+ * Application icon is at the top start, title and subtitle are stacked next to it. Description,
+ * fingerprint symbol, status text and negative button are stacked below the subtitle, fingerprint
+ * symbol is centered horizontally. Children are found by their ids in
+ * {@code fingerprint_compat_dialog.xml}, vertical margins and start/end margins of the children
+ * are respected.
+ *
+ * @author <a href="https://github.com/cengizbayrak">cengizb</a>
+ */
+public final class FingerprintDialogLayout extends ViewGroup {
+    private View appIcon;
+    private View title;
+    private View subtitle;
+    private View description;
+    private View fingerprintSymbol;
+    private View status;
+    private View negativeButton;
+
+    public FingerprintDialogLayout(@NonNull final Context context) {
+        super(context);
+    }
+
+    public FingerprintDialogLayout(@NonNull final Context context, final AttributeSet attrs) {
+        super(context, attrs);
+    }
+
+    @Override
+    protected void onFinishInflate() {
+        super.onFinishInflate();
+        appIcon = requireChild(R.id.app_icon_iv);
+        title = requireChild(R.id.title_tv);
+        subtitle = requireChild(R.id.subtitle_tv);
+        description = requireChild(R.id.description_tv);
+        fingerprintSymbol = requireChild(R.id.fingerprint_symbol_iv);
+        status = requireChild(R.id.fingerprint_status_tv);
+        negativeButton = requireChild(R.id.negative_btn);
+    }
+
+    @Override
+    protected void onMeasure(final int widthMeasureSpec, final int heightMeasureSpec) {
+        final int width = getDefaultSize(getSuggestedMinimumWidth(), widthMeasureSpec);
+        final int contentWidth = Math.max(0, width - getPaddingLeft() - getPaddingRight());
+
+        measure(appIcon, contentWidth);
+        // title and subtitle share the width next to the icon
+        final int titleWidth = Math.max(0, contentWidth - horizontalSpan(appIcon));
+        measure(title, titleWidth);
+        measure(subtitle, titleWidth);
+        measure(description, contentWidth);
+        measure(fingerprintSymbol, contentWidth);
+        measure(status, contentWidth);
+        measure(negativeButton, contentWidth);
+
+        final int contentHeight = Math.max(verticalSpan(appIcon),
+                verticalSpan(title) + verticalSpan(subtitle) + verticalSpan(description)
+                        + verticalSpan(fingerprintSymbol) + verticalSpan(status)
+                        + verticalSpan(negativeButton));
+        setMeasuredDimension(width, resolveSize(
+                contentHeight + getPaddingTop() + getPaddingBottom(), heightMeasureSpec));
+    }
+
+    @Override
+    protected void onLayout(final boolean changed, final int l, final int t, final int r, final int b) {
+        final int start = getPaddingStart();
+        final int contentWidth = r - l - getPaddingLeft() - getPaddingRight();
+        final int top = getPaddingTop();
+
+        place(appIcon, start, top);
+        final int titleStart = start + horizontalSpan(appIcon);
+        int y = place(title, titleStart, top);
+        y = place(subtitle, titleStart, y);
+        y = place(description, start, y);
+        // symbol is centered, its start margin is ignored
+        final int symbolStart = start + (contentWidth - fingerprintSymbol.getMeasuredWidth()) / 2
+                - marginStart(fingerprintSymbol);
+        y = place(fingerprintSymbol, symbolStart, y);
+        y = place(status, start, y);
+        place(negativeButton, start, y);
+    }
+
+    /**
+     * Measure child within the available width. Child height is measured without limit, dialog
+     * content scrolls when it does not fit.
+     *
+     * @param child          child to measure
+     * @param availableWidth width available to child and its margins
+     */
+    private void measure(@NonNull final View child, final int availableWidth) {
+        if (child.getVisibility() == GONE) return;
+        final MarginLayoutParams lp = (MarginLayoutParams) child.getLayoutParams();
+        child.measure(
+                getChildMeasureSpec(MeasureSpec.makeMeasureSpec(availableWidth, MeasureSpec.EXACTLY),
+                        marginStart(child) + lp.getMarginEnd(), lp.width),
+                getChildMeasureSpec(MeasureSpec.makeMeasureSpec(0, MeasureSpec.UNSPECIFIED),
+                        lp.topMargin + lp.bottomMargin, lp.height));
+    }
+
+    /**
+     * Lay out measured child.
+     *
+     * @param child child to lay out
+     * @param start start of the child's margin box, from the start edge of the layout
+     * @param top   top of the child's margin box
+     * @return bottom of the child's margin box, or top if child is gone
+     */
+    private int place(@NonNull final View child, final int start, final int top) {
+        if (child.getVisibility() == GONE) return top;
+        final MarginLayoutParams lp = (MarginLayoutParams) child.getLayoutParams();
+        final int width = child.getMeasuredWidth();
+        final int height = child.getMeasuredHeight();
+        int left = start + marginStart(child);
+        if (getLayoutDirection() == LAYOUT_DIRECTION_RTL) {
+            // mirror start edge to the right side
+            left = getMeasuredWidth() - left - width;
+        }
+        final int childTop = top + lp.topMargin;
+        child.layout(left, childTop, left + width, childTop + height);
+        return childTop + height + lp.bottomMargin;
+    }
+
+    private static int horizontalSpan(@NonNull final View child) {
+        if (child.getVisibility() == GONE) return 0;
+        final MarginLayoutParams lp = (MarginLayoutParams) child.getLayoutParams();
+        return marginStart(child) + child.getMeasuredWidth() + lp.getMarginEnd();
+    }
+
+    private static int verticalSpan(@NonNull final View child) {
+        if (child.getVisibility() == GONE) return 0;
+        final MarginLayoutParams lp = (MarginLayoutParams) child.getLayoutParams();
+        return lp.topMargin + child.getMeasuredHeight() + lp.bottomMargin;
+    }
+
+    private static int marginStart(@NonNull final View child) {
+        return ((MarginLayoutParams) child.getLayoutParams()).getMarginStart();
+    }
+
+    @NonNull
+    private View requireChild(final int id) {
+        final View child = findViewById(id);
+        if (child == null || child.getParent() != this) {
+            throw new IllegalStateException("Missing child view of dialog layout: "
+                    + getResources().getResourceEntryName(id));
+        }
+        return child;
+    }
+
+    @Override
+    public boolean shouldDelayChildPressedState() {
+        return false;
+    }
+
+    @Override
+    protected boolean checkLayoutParams(final ViewGroup.LayoutParams p) {
+        return p instanceof MarginLayoutParams;
+    }
+
+    @Override
+    protected ViewGroup.LayoutParams generateDefaultLayoutParams() {
+        return new MarginLayoutParams(LayoutParams.WRAP_CONTENT, LayoutParams.WRAP_CONTENT);
+    }
+
+    @Override
+    public ViewGroup.LayoutParams generateLayoutParams(final AttributeSet attrs) {
+        return new MarginLayoutParams(getContext(), attrs);
+    }
+
+    @Override
+    protected ViewGroup.LayoutParams generateLayoutParams(final ViewGroup.LayoutParams p) {
+        return new MarginLayoutParams(p);
+    }
+}
@@ -0,0 +1,290 @@
+package com.cengizb.fingerprintdialog;
+
+import android.annotation.TargetApi;
+import android.os.Build;
+import android.security.keystore.KeyPermanentlyInvalidatedException;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import java.io.IOException;
+import java.security.GeneralSecurityException;
+
+import javax.crypto.Cipher;
+import javax.crypto.SecretKey;
+
+/**
+ * Created by cengizb on 18.10.2026
+ * <p>
+ * Manages the AndroidKeyStore key used to authenticate fingerprint scans.
+ * <p>
+ * Key is generated once under a stable alias and reused for later prompts. It is regenerated
+ * for encryption only, if it is missing or permanently invalidated (e.g. new fingerprint
+ * enrolled). Data encrypted with the lost key cannot be decrypted anymore, so decryption fails
+ * with {@link KeyPermanentlyInvalidatedException} instead, see {@link ErrorCode#KEY_INVALIDATED}.
+ * <p>
+ * Keys and ciphers come from the process wide {@link KeyProvider}, which is
+ * {@link AndroidKeyStoreProvider} unless replaced by {@link #setKeyProvider(KeyProvider)}.
+ *
+ * @author <a href="https://github.com/cengizbayrak">cengizb</a>
+ */
+@SuppressWarnings("WeakerAccess")
+@TargetApi(Build.VERSION_CODES.M)
+public class FingerprintKeyManager {
+    /**
+     * Prefix of every key alias created by this library.
+     */
+    public static final String KEY_ALIAS_PREFIX = "com.cengizb.fingerprintdialog.";
+
+    /**
+     * Name of the key used if application does not provide one.
+     */
+    public static final String DEFAULT_KEY_NAME = "default";
+
+    // separates key name and key parameters in the alias
+    static final String KEY_PARAMETER_SEPARATOR = "#";
+
+    // provider of keys and ciphers of every key manager
+    @NonNull
+    private static volatile KeyProvider keyProvider = AndroidKeyStoreProvider.getInstance();
+
+    // full alias of the key in the key store
+    @NonNull
+    private final String keyAlias;
+
+    // seconds the key can be used after an authentication, 0 if every use requires one
+    private final int validitySeconds;
+
+    // block mode and padding the key is restricted to
+    @CipherMode
+    private final int cipherMode;
+
+    /**
+     * Public constructor.
+     *
+     * @param keyName name of the key, it will be stored under {@link #KEY_ALIAS_PREFIX} + keyName
+     */
+    public FingerprintKeyManager(@NonNull final String keyName) {
+        this(keyName, 0, CipherMode.CBC_PKCS7);
+    }
+
+    /**
+     * Public constructor.
+     *
+     * @param keyName         name of the key
+     * @param validitySeconds seconds the key can be used after an authentication, or 0 if every
+     *                        use requires authentication
+     * @see #FingerprintKeyManager(String, int, int)
+     */
+    public FingerprintKeyManager(@NonNull final String keyName, final int validitySeconds) {
+        this(keyName, validitySeconds, CipherMode.CBC_PKCS7);
+    }
+
+    /**
+     * Public constructor.
+     * <p>
+     * Key with a validity window can be used without authentication for the given number of
+     * seconds after the user authenticated. Such a key is stored under a different alias than
+     * the key which requires authentication for every use.
+     *
+     * @param keyName         name of the key
+     * @param validitySeconds seconds the key can be used after an authentication, or 0 if every
+     *                        use requires authentication
+     * @param cipherMode      block mode and padding the key is restricted to. Key of every mode
+     *                        other than {@link CipherMode#CBC_PKCS7} is stored under a different
+     *                        alias.
+     */
+    public FingerprintKeyManager(@NonNull final String keyName,
+                                 final int validitySeconds,
+                                 @CipherMode final int cipherMode) {
+        if (validitySeconds < 0) throw new IllegalArgumentException("Validity cannot be negative.");
+
+        final StringBuilder alias = new StringBuilder(toAlias(keyName));
+        if (validitySeconds > 0) {
+            alias.append(KEY_PARAMETER_SEPARATOR).append("validity").append(validitySeconds);
+        }
+        if (cipherMode != CipherMode.CBC_PKCS7) {
+            alias.append(KEY_PARAMETER_SEPARATOR).append(CipherConfig.blockMode(cipherMode))
+                    .append(CipherConfig.padding(cipherMode));
+        }
+        this.keyAlias = alias.toString();
+        this.validitySeconds = validitySeconds;
+        this.cipherMode = cipherMode;
+    }
+
+    /**
+     * Get key store alias of key name.
+     *
+     * @param keyName name of the key
+     * @return alias of the key in AndroidKeyStore
+     */
+    @NonNull
+    public static String toAlias(@NonNull final String keyName) {
+        return KEY_ALIAS_PREFIX + keyName;
+    }
+
+    /**
+     * Replace provider of keys and ciphers, e.g. with {@link SoftwareKeyProvider} to run the
+     * crypto path on the JVM. Set it once at startup, before any key is used; keys of the
+     * previous provider are not moved.
+     *
+     * @param keyProvider {@link KeyProvider}
+     */
+    public static void setKeyProvider(@NonNull final KeyProvider keyProvider) {
+        FingerprintKeyManager.keyProvider = keyProvider;
+    }
+
+    /**
+     * @return provider of keys and ciphers
+     */
+    @NonNull
+    public static KeyProvider getKeyProvider() {
+        return keyProvider;
+    }
+
+    /**
+     * @return alias of the key in AndroidKeyStore
+     */
+    @NonNull
+    public String getKeyAlias() {
+        return keyAlias;
+    }
+
+    /**
+     * Create cipher initialized with the authentication key for encryption.
+     *
+     * @return initialized cipher or null if key store cannot be accessed
+     * @see #createCipher(byte[])
+     */
+    @Nullable
+    public Cipher createCipher() {
+        return createCipher(null);
+    }
+
+    /**
+     * Create cipher initialized with the authentication key.
+     * <p>
+     * For encryption, key is generated if it does not exist yet. If key is permanently
+     * invalidated, it is deleted and generated again. For decryption, key is never generated, and
+     * null is returned if it is missing or permanently invalidated.
+     * <p>
+     * Cipher is taken from the process wide pool. Return it with {@link #releaseCipher(Cipher)}
+     * once it is not used anymore.
+     *
+     * @param iv initialization vector of the encrypted data for decryption, or null for encryption
+     * @return initialized cipher or null if key store cannot be accessed, if key has a validity
+     * window and user is not authenticated within it, or if key of the decryption is lost
+     */
+    @Nullable
+    public Cipher createCipher(@Nullable final byte[] iv) {
+        try {
+            return createCipherOrThrow(iv);
+        } catch (GeneralSecurityException | IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Create cipher initialized with the authentication key.
+     *
+     * @param iv initialization vector of the encrypted data for decryption, or null for encryption
+     * @return initialized cipher
+     * @throws android.security.keystore.UserNotAuthenticatedException if key has a validity
+     *                                                                 window and user is not
+     *                                                                 authenticated within it
+     * @throws KeyPermanentlyInvalidatedException                      if key of the decryption is
+     *                                                                 missing or permanently
+     *                                                                 invalidated
+     * @see #createCipher(byte[])
+     */
+    @NonNull
+    Cipher createCipherOrThrow(@Nullable final byte[] iv) throws GeneralSecurityException, IOException {
+        final KeyProvider provider = keyProvider;
+        final Cipher cipher = provider.acquireCipher(cipherMode);
+        try {
+            try {
+                initCipher(provider, cipher, iv);
+            } catch (KeyPermanentlyInvalidatedException e) {
+                // data encrypted with the invalidated key is lost, new key is for new data only
+                if (iv != null) throw e;
+
+                // fingerprints changed since key generated, key cannot be used anymore
+                provider.deleteKey(keyAlias);
+                initCipher(provider, cipher, null);
+            }
+            return cipher;
+        } catch (GeneralSecurityException | IOException e) {
+            provider.releaseCipher(cipher);
+            throw e;
+        }
+    }
+
+    /**
+     * Return cipher created by {@link #createCipher()} into the pool, so it can be re-initialized
+     * for the next prompt. Cipher must not be used after this.
+     *
+     * @param cipher cipher created by {@link #createCipher()}
+     */
+    public static void releaseCipher(@NonNull final Cipher cipher) {
+        keyProvider.releaseCipher(cipher);
+    }
+
+    /**
+     * Delete authentication key from key store.
+     *
+     * @return true if key deleted or does not exist
+     */
+    public boolean deleteKey() {
+        try {
+            keyProvider.deleteKey(keyAlias);
+            return true;
+        } catch (GeneralSecurityException | IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Initialize cipher with the authentication key.
+     *
+     * @param provider provider of the key
+     * @param cipher   cipher to initialize
+     * @param iv       initialization vector for decryption, or null for encryption
+     */
+    private void initCipher(@NonNull final KeyProvider provider,
+                            @NonNull final Cipher cipher,
+                            @Nullable final byte[] iv) throws GeneralSecurityException, IOException {
+        if (iv == null) {
+            cipher.init(Cipher.ENCRYPT_MODE, getOrCreateKey(provider));
+        } else {
+            cipher.init(Cipher.DECRYPT_MODE, getKey(provider),
+                    CipherConfig.decryptionParameters(cipherMode, iv));
+        }
+    }
+
+    /**
+     * Get authentication key of the encrypted data from provider.
+     *
+     * @param provider provider of the key
+     * @return authentication key
+     * @throws KeyPermanentlyInvalidatedException if key does not exist, e.g. it is deleted
+     */
+    @NonNull
+    private SecretKey getKey(@NonNull final KeyProvider provider)
+            throws GeneralSecurityException, IOException {
+        final SecretKey key = provider.getKey(keyAlias);
+        if (key == null) throw new KeyPermanentlyInvalidatedException("Key does not exist.");
+        return key;
+    }
+
+    /**
+     * Get authentication key from provider, generate it if it does not exist.
+     *
+     * @param provider provider of the key
+     * @return authentication key
+     */
+    @NonNull
+    private SecretKey getOrCreateKey(@NonNull final KeyProvider provider)
+            throws GeneralSecurityException, IOException {
+        final SecretKey key = provider.getKey(keyAlias);
+        return key != null ? key : provider.generateKey(keyAlias, validitySeconds, cipherMode);
+    }
+}
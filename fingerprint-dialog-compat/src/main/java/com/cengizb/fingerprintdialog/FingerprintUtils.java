@@ -3,9 +3,14 @@ package com.cengizb.fingerprintdialog;
 import android.content.Context;
 import android.content.Intent;
 import android.provider.Settings;
+import android.support.annotation.MainThread;
 import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
 import android.support.v4.hardware.fingerprint.FingerprintManagerCompat;
 
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+
 /**
  * Created by cengizb on 30.05.2019
  * <p>
@@ -21,12 +26,17 @@ public class FingerprintUtils {
      * @param context caller context
      */
     public static void openSecuritySettings(@NonNull final Context context) {
+        // user may enroll fingerprints there
+        FingerprintCapabilities.invalidate();
         Intent intent = new Intent(Settings.ACTION_SECURITY_SETTINGS);
         context.startActivity(intent);
     }
 
     /**
-     * Check if device has hardware support for fingerprint scanning
+     * Check if device has hardware support for fingerprint scanning.
+     * <p>
+     * Fingerprint service is queried on every call, see {@link FingerprintCapabilities} for a
+     * cached snapshot.
      *
      * @param context caller context
      * @return true if device has hardware support
@@ -44,4 +54,52 @@ public class FingerprintUtils {
     public static boolean fingerprintEnrolled(@NonNull final Context context) {
         return FingerprintManagerCompat.from(context).hasEnrolledFingerprints();
     }
+
+    /**
+     * Query {@link FingerprintCapabilities} on the background thread, e.g. at application start to
+     * decide between fingerprint and PIN flow without blocking the main thread. Probe has its own
+     * thread, it does not wait for key store work of the library.
+     * <p>
+     * Result replaces the cached snapshot, so a following
+     * {@link FingerprintDialogBuilder#show(android.support.v4.app.FragmentManager, AuthenticationCallback)}
+     * does not query the fingerprint service again.
+     *
+     * @param context  caller context, application context of it is used
+     * @param callback {@link CapabilitiesCallback} to notify on the main thread, or null to use
+     *                 the returned future only
+     * @return {@link Future} of the capabilities
+     */
+    @NonNull
+    public static Future<FingerprintCapabilities> probeCapabilities(@NonNull final Context context,
+                                                                    @Nullable final CapabilitiesCallback callback) {
+        final Context appContext = context.getApplicationContext();
+        return LibraryExecutors.probe().submit(new Callable<FingerprintCapabilities>() {
+            @Override
+            public FingerprintCapabilities call() {
+                final FingerprintCapabilities capabilities = FingerprintCapabilities.probe(appContext);
+                if (callback != null) {
+                    LibraryExecutors.mainThread().post(new Runnable() {
+                        @Override
+                        public void run() {
+                            callback.onCapabilitiesReady(capabilities);
+                        }
+                    });
+                }
+                return capabilities;
+            }
+        });
+    }
+
+    /**
+     * Callback of {@link #probeCapabilities(Context, CapabilitiesCallback)}.
+     */
+    public interface CapabilitiesCallback {
+        /**
+         * Capabilities are queried.
+         *
+         * @param capabilities {@link FingerprintCapabilities}
+         */
+        @MainThread
+        void onCapabilitiesReady(@NonNull final FingerprintCapabilities capabilities);
+    }
 }
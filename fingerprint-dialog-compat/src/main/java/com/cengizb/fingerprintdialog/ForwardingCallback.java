@@ -0,0 +1,75 @@
+package com.cengizb.fingerprintdialog;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+/**
+ * Created by cengizb on 18.10.2026
+ * <p>
+ * {@link AuthenticationCallback} which forwards every event to another callback. Library wraps
+ * the callback of the application with subclasses of this to observe the events.
+ * <p>
+ * Unlocked cipher is forwarded only if the wrapped callback wants it, see
+ * {@link Callbacks#wantsCipher(AuthenticationCallback)}.
+ *
+ * @author <a href="https://github.com/cengizbayrak">cengizb</a>
+ */
+abstract class ForwardingCallback implements CryptoAuthenticationCallback {
+
+    @NonNull
+    final AuthenticationCallback delegate;
+
+    /**
+     * Package private constructor.
+     *
+     * @param delegate {@link AuthenticationCallback} to forward events to
+     */
+    ForwardingCallback(@NonNull final AuthenticationCallback delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public void fingerprintAuthenticationNotSupported() {
+        delegate.fingerprintAuthenticationNotSupported();
+    }
+
+    @Override
+    public void noEnrolledFingerprints() {
+        delegate.noEnrolledFingerprints();
+    }
+
+    @Override
+    public void authenticationCanceledByUser() {
+        delegate.authenticationCanceledByUser();
+    }
+
+    @Override
+    public void onAuthenticationError(final int code, @Nullable final CharSequence error) {
+        delegate.onAuthenticationError(code, error);
+    }
+
+    @Override
+    public void onAuthenticationHelp(final int code, @Nullable final CharSequence help) {
+        delegate.onAuthenticationHelp(code, help);
+    }
+
+    @Override
+    public void onAuthenticationFailed() {
+        delegate.onAuthenticationFailed();
+    }
+
+    @Override
+    public void onAuthenticationSucceeded() {
+        delegate.onAuthenticationSucceeded();
+    }
+
+    @Override
+    public void onAuthenticationSucceeded(@NonNull final CipherStream cipher) {
+        if (Callbacks.wantsCipher(delegate)) {
+            ((CryptoAuthenticationCallback) delegate).onAuthenticationSucceeded(cipher);
+        } else {
+            cipher.release();
+            delegate.onAuthenticationSucceeded();
+        }
+    }
+}
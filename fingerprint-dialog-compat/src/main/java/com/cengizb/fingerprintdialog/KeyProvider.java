@@ -0,0 +1,79 @@
+package com.cengizb.fingerprintdialog;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import java.io.IOException;
+import java.security.GeneralSecurityException;
+import java.util.List;
+
+import javax.crypto.Cipher;
+import javax.crypto.SecretKey;
+
+/**
+ * Created by cengizb on 18.10.2026
+ * <p>
+ * Generates and stores keys, and creates ciphers for {@link FingerprintKeyManager}.
+ * <p>
+ * Library uses {@link AndroidKeyStoreProvider} by default. {@link SoftwareKeyProvider} keeps keys
+ * in memory with plain JCE, to run and measure the crypto path on the JVM.
+ * Implementations must be thread safe.
+ *
+ * @author <a href="https://github.com/cengizbayrak">cengizb</a>
+ * @see FingerprintKeyManager#setKeyProvider(KeyProvider)
+ */
+public interface KeyProvider {
+
+    /**
+     * Get key by alias.
+     *
+     * @param alias key alias
+     * @return key or null if provider does not contain the alias
+     */
+    @Nullable
+    SecretKey getKey(@NonNull final String alias) throws GeneralSecurityException, IOException;
+
+    /**
+     * Generate AES key and store it under the alias.
+     *
+     * @param alias           key alias
+     * @param validitySeconds seconds the key can be used after an authentication, or 0 if every
+     *                        use requires authentication
+     * @param cipherMode      block mode and padding the key is restricted to
+     * @return generated key
+     */
+    @NonNull
+    SecretKey generateKey(@NonNull final String alias,
+                          final int validitySeconds,
+                          @CipherMode final int cipherMode) throws GeneralSecurityException, IOException;
+
+    /**
+     * Delete key. Nothing happens if provider does not contain the alias.
+     *
+     * @param alias key alias
+     */
+    void deleteKey(@NonNull final String alias) throws GeneralSecurityException, IOException;
+
+    /**
+     * @return aliases of every key in the provider
+     */
+    @NonNull
+    List<String> aliases() throws GeneralSecurityException, IOException;
+
+    /**
+     * Get an uninitialized cipher of the cipher mode.
+     *
+     * @param cipherMode block mode and padding of the cipher
+     * @return {@link Cipher}
+     * @see #releaseCipher(Cipher)
+     */
+    @NonNull
+    Cipher acquireCipher(@CipherMode final int cipherMode) throws GeneralSecurityException;
+
+    /**
+     * Take back a cipher taken by {@link #acquireCipher(int)} once it is not used anymore.
+     *
+     * @param cipher cipher taken by {@link #acquireCipher(int)}
+     */
+    void releaseCipher(@NonNull final Cipher cipher);
+}
@@ -0,0 +1,74 @@
+package com.cengizb.fingerprintdialog;
+
+import android.support.annotation.NonNull;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Created by cengizb on 18.10.2026
+ * <p>
+ * Lock free histogram of latencies in milliseconds.
+ * <p>
+ * Buckets are log-linear: every power of two is split into four buckets, so a bucket is at most
+ * 25% wide. The last bucket starts at 114688 ms (about 1.9 minutes) and holds every longer
+ * latency too. Recording neither locks nor allocates.
+ *
+ * @author <a href="https://github.com/cengizbayrak">cengizb</a>
+ */
+final class LatencyHistogram {
+    // buckets per power of two
+    private static final int SUB_BUCKETS = 4;
+
+    // 0-3 ms and 15 powers of two from 2^2 ms, last bucket starts at 7 * 2^14 ms
+    static final int BUCKET_COUNT = 64;
+
+    // count by bucket, then total count and sum
+    private final AtomicLongArray cells = new AtomicLongArray(BUCKET_COUNT + 2);
+
+    private static final int COUNT = BUCKET_COUNT;
+    private static final int SUM = BUCKET_COUNT + 1;
+
+    /**
+     * Record latency.
+     *
+     * @param millis latency in milliseconds, negative latency is recorded as 0
+     */
+    void record(final long millis) {
+        final long value = Math.max(0, millis);
+        cells.incrementAndGet(bucketOf(value));
+        cells.incrementAndGet(COUNT);
+        cells.addAndGet(SUM, value);
+    }
+
+    /**
+     * Copy counts of the histogram.
+     *
+     * @param reset true to reset every copied cell to 0
+     * @return bucket counts followed by total count and sum in milliseconds
+     */
+    @NonNull
+    long[] copy(final boolean reset) {
+        return AuthenticationMetrics.copy(cells, reset);
+    }
+
+    /**
+     * @param millis latency in milliseconds, not negative
+     * @return index of the bucket of the latency
+     */
+    static int bucketOf(final long millis) {
+        if (millis < SUB_BUCKETS) return (int) millis;
+        final int exponent = 63 - Long.numberOfLeadingZeros(millis);
+        final int subBucket = (int) (millis >> (exponent - 2)) & (SUB_BUCKETS - 1);
+        return Math.min(BUCKET_COUNT - 1, SUB_BUCKETS * (exponent - 1) + subBucket);
+    }
+
+    /**
+     * @param bucket index of the bucket
+     * @return smallest latency of the bucket in milliseconds
+     */
+    static long lowerBoundOf(final int bucket) {
+        if (bucket < SUB_BUCKETS) return bucket;
+        final int exponent = bucket / SUB_BUCKETS + 1;
+        return (long) (SUB_BUCKETS + bucket % SUB_BUCKETS) << (exponent - 2);
+    }
+}
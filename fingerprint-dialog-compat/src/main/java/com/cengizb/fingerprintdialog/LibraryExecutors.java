@@ -0,0 +1,120 @@
+package com.cengizb.fingerprintdialog;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.Process;
+import android.support.annotation.NonNull;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Created by cengizb on 18.10.2026
+ * <p>
+ * Executors shared by the library.
+ * <p>
+ * Key store and cipher work is executed on the background executor to keep it off the main
+ * thread. Capability probes run on their own executor, so they are not queued behind key store
+ * work. Results are delivered back to the main thread with {@link #mainThread()}.
+ *
+ * @author <a href="https://github.com/cengizbayrak">cengizb</a>
+ */
+final class LibraryExecutors {
+
+    // idle background thread is stopped after this timeout
+    private static final long KEEP_ALIVE_SECONDS = 30;
+
+    private static volatile ExecutorService background;
+
+    private static volatile ExecutorService probe;
+
+    private static volatile Handler mainThread;
+
+    private LibraryExecutors() {
+        // no instance
+    }
+
+    /**
+     * Get background executor. Tasks are executed one by one in submission order, because key
+     * store operations cannot run in parallel anyway.
+     *
+     * @return background {@link ExecutorService}
+     */
+    @NonNull
+    static ExecutorService background() {
+        if (background == null) {
+            synchronized (LibraryExecutors.class) {
+                if (background == null) background = newSingleThreadExecutor();
+            }
+        }
+        return background;
+    }
+
+    /**
+     * Get executor of capability probes, a fingerprint service query must not wait for key store
+     * work on {@link #background()}.
+     *
+     * @return probe {@link ExecutorService}
+     */
+    @NonNull
+    static ExecutorService probe() {
+        if (probe == null) {
+            synchronized (LibraryExecutors.class) {
+                if (probe == null) probe = newSingleThreadExecutor();
+            }
+        }
+        return probe;
+    }
+
+    /**
+     * @return {@link Handler} of the main thread
+     */
+    @NonNull
+    static Handler mainThread() {
+        if (mainThread == null) {
+            synchronized (LibraryExecutors.class) {
+                if (mainThread == null) mainThread = new Handler(Looper.getMainLooper());
+            }
+        }
+        return mainThread;
+    }
+
+    /**
+     * Create executor with a single low priority thread which is stopped when idle.
+     *
+     * @return {@link ExecutorService}
+     */
+    @NonNull
+    private static ExecutorService newSingleThreadExecutor() {
+        final ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1,
+                KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<Runnable>(),
+                new BackgroundThreadFactory());
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * Creates low priority daemon threads for the executors.
+     */
+    private static final class BackgroundThreadFactory implements ThreadFactory {
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(@NonNull final Runnable runnable) {
+            final Thread thread = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+                    runnable.run();
+                }
+            }, "fingerprint-dialog-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
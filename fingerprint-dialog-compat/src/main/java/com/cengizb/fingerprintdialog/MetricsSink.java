@@ -0,0 +1,21 @@
+package com.cengizb.fingerprintdialog;
+
+import android.support.annotation.NonNull;
+
+/**
+ * Created by cengizb on 18.10.2026
+ * <p>
+ * Destination of the metrics exported by {@link AuthenticationMetrics#export(boolean)}, e.g.
+ * telemetry of the application.
+ *
+ * @author <a href="https://github.com/cengizbayrak">cengizb</a>
+ */
+public interface MetricsSink {
+
+    /**
+     * Export snapshot. Called on the thread which calls {@link AuthenticationMetrics#export(boolean)}.
+     *
+     * @param snapshot {@link MetricsSnapshot}
+     */
+    void export(@NonNull final MetricsSnapshot snapshot);
+}
@@ -0,0 +1,225 @@
+package com.cengizb.fingerprintdialog;
+
+import android.support.annotation.NonNull;
+
+/**
+ * Created by cengizb on 18.10.2026
+ * <p>
+ * Immutable copy of the counters and histograms of {@link AuthenticationMetrics}.
+ * <p>
+ * Counters are copied one by one while events may still be recorded, so counters of a snapshot
+ * may belong to slightly different moments. No event is lost or counted twice across snapshots
+ * taken with reset.
+ *
+ * @author <a href="https://github.com/cengizbayrak">cengizb</a>
+ */
+@SuppressWarnings("WeakerAccess")
+public final class MetricsSnapshot {
+
+    // counts by error code, last one for codes out of range
+    @NonNull
+    private final long[] errors;
+
+    // counts by help code, last one for codes out of range
+    @NonNull
+    private final long[] helps;
+
+    // counts by outcome
+    @NonNull
+    private final long[] outcomes;
+
+    @NonNull
+    private final Histogram timeToArmed;
+
+    @NonNull
+    private final Histogram timeToResult;
+
+    // SystemClock.elapsedRealtime() of the snapshot
+    private final long timestamp;
+
+    MetricsSnapshot(@NonNull final long[] errors,
+                    @NonNull final long[] helps,
+                    @NonNull final long[] outcomes,
+                    @NonNull final Histogram timeToArmed,
+                    @NonNull final Histogram timeToResult,
+                    final long timestamp) {
+        this.errors = errors;
+        this.helps = helps;
+        this.outcomes = outcomes;
+        this.timeToArmed = timeToArmed;
+        this.timeToResult = timeToResult;
+        this.timestamp = timestamp;
+    }
+
+    /**
+     * @param code {@link ErrorCode}, or a vendor specific error code
+     * @return number of errors of the code, vendor specific codes are counted together
+     * @see #getOtherErrorCount()
+     */
+    public long getErrorCount(final int code) {
+        return errors[AuthenticationMetrics.indexOf(code)];
+    }
+
+    /**
+     * @return number of errors of codes above {@link AuthenticationMetrics#MAX_CODE}, e.g. vendor
+     * specific errors
+     */
+    public long getOtherErrorCount() {
+        return errors[AuthenticationMetrics.MAX_CODE + 1];
+    }
+
+    /**
+     * @param code {@link HelperCode}, or a vendor specific help code
+     * @return number of help events of the code, vendor specific codes are counted together
+     * @see #getOtherHelpCount()
+     */
+    public long getHelpCount(final int code) {
+        return helps[AuthenticationMetrics.indexOf(code)];
+    }
+
+    /**
+     * @return number of help events of codes above {@link AuthenticationMetrics#MAX_CODE}
+     */
+    public long getOtherHelpCount() {
+        return helps[AuthenticationMetrics.MAX_CODE + 1];
+    }
+
+    /**
+     * @return number of successful authentications
+     */
+    public long getSucceededCount() {
+        return outcomes[AuthenticationMetrics.OUTCOME_SUCCEEDED];
+    }
+
+    /**
+     * @return number of scanned fingers which did not match, scan continues after them
+     */
+    public long getFailedCount() {
+        return outcomes[AuthenticationMetrics.OUTCOME_FAILED];
+    }
+
+    /**
+     * @return number of authentications canceled by user
+     */
+    public long getCanceledCount() {
+        return outcomes[AuthenticationMetrics.OUTCOME_CANCELED];
+    }
+
+    /**
+     * @return number of authentications ended by an unrecoverable error
+     */
+    public long getErrorOutcomeCount() {
+        return outcomes[AuthenticationMetrics.OUTCOME_ERROR];
+    }
+
+    /**
+     * @return number of authentications not supported by device
+     */
+    public long getNotSupportedCount() {
+        return outcomes[AuthenticationMetrics.OUTCOME_NOT_SUPPORTED];
+    }
+
+    /**
+     * @return number of authentications without enrolled fingerprints
+     */
+    public long getNoEnrolledFingerprintsCount() {
+        return outcomes[AuthenticationMetrics.OUTCOME_NO_ENROLLED];
+    }
+
+    /**
+     * @return {@link Histogram} of time from show() to armed sensor
+     */
+    @NonNull
+    public Histogram getTimeToArmed() {
+        return timeToArmed;
+    }
+
+    /**
+     * @return {@link Histogram} of time from show() to result
+     */
+    @NonNull
+    public Histogram getTimeToResult() {
+        return timeToResult;
+    }
+
+    /**
+     * @return {@link android.os.SystemClock#elapsedRealtime()} when snapshot is taken
+     */
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    /**
+     * Immutable latency histogram in milliseconds. Every power of two is split into four buckets.
+     */
+    public static final class Histogram {
+
+        // bucket counts followed by total count and sum
+        @NonNull
+        private final long[] cells;
+
+        Histogram(@NonNull final long[] cells) {
+            this.cells = cells;
+        }
+
+        /**
+         * @return number of recorded latencies
+         */
+        public long getCount() {
+            return cells[LatencyHistogram.BUCKET_COUNT];
+        }
+
+        /**
+         * @return sum of recorded latencies in milliseconds
+         */
+        public long getSumMillis() {
+            return cells[LatencyHistogram.BUCKET_COUNT + 1];
+        }
+
+        /**
+         * @return number of buckets
+         */
+        public int getBucketCount() {
+            return LatencyHistogram.BUCKET_COUNT;
+        }
+
+        /**
+         * @param bucket index of the bucket
+         * @return number of latencies in the bucket
+         */
+        public long getCountOfBucket(final int bucket) {
+            return cells[bucket];
+        }
+
+        /**
+         * @param bucket index of the bucket
+         * @return smallest latency of the bucket in milliseconds
+         */
+        public long getLowerBoundMillis(final int bucket) {
+            return LatencyHistogram.lowerBoundOf(bucket);
+        }
+
+        /**
+         * Get approximate percentile, e.g. 0.5 for p50 and 0.99 for p99.
+         *
+         * @param percentile percentile between 0 and 1
+         * @return upper bound of the bucket of the percentile in milliseconds, or 0 if nothing is
+         * recorded
+         */
+        public long getPercentileMillis(final double percentile) {
+            final long count = getCount();
+            if (count == 0) return 0;
+            final long rank = Math.max(1, (long) Math.ceil(percentile * count));
+            long seen = 0;
+            for (int bucket = 0; bucket < LatencyHistogram.BUCKET_COUNT; bucket++) {
+                seen += cells[bucket];
+                if (seen >= rank) {
+                    return bucket + 1 < LatencyHistogram.BUCKET_COUNT
+                            ? LatencyHistogram.lowerBoundOf(bucket + 1)
+                            : Long.MAX_VALUE;
+                }
+            }
+            return Long.MAX_VALUE;
+        }
+    }
+}
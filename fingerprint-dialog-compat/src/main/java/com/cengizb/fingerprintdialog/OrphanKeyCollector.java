@@ -0,0 +1,259 @@
+package com.cengizb.fingerprintdialog;
+
+import android.annotation.TargetApi;
+import android.os.Build;
+import android.os.SystemClock;
+import android.support.annotation.MainThread;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import java.io.IOException;
+import java.security.GeneralSecurityException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Created by cengizb on 18.10.2026
+ * <p>
+ * Deletes keys created by this library which are not used anymore from AndroidKeyStore.
+ * <p>
+ * Keys are recognised by {@link FingerprintKeyManager#KEY_ALIAS_PREFIX}. Older versions of the
+ * library created a key under a random UUID alias on every process start, those can be collected
+ * too, see {@link #collect(Collection, boolean, Callback)}.
+ * <p>
+ * Keys are deleted in batches on the background thread, so other key store work of the library
+ * is not blocked until all keys are deleted.
+ * <p>
+ * Deleted key is lost with the data encrypted by it: decryption with a deleted key is reported by
+ * {@link ErrorCode#KEY_INVALIDATED}, the key is not generated again. Key of every builder which
+ * is still in use, including one with a cipher prepared in advance, must be a live key.
+ *
+ * @author <a href="https://github.com/cengizbayrak">cengizb</a>
+ */
+@SuppressWarnings("WeakerAccess")
+@TargetApi(Build.VERSION_CODES.M)
+public final class OrphanKeyCollector {
+
+    // number of keys deleted in one background task
+    private static final int BATCH_SIZE = 16;
+
+    // alias format of keys created by older versions of the library
+    private static final Pattern LEGACY_ALIAS = Pattern.compile(
+            "[0-9a-f]{8}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{12}");
+
+    /**
+     * Notified on the main thread once collection is finished.
+     */
+    public interface Callback {
+
+        /**
+         * @param result {@link Result} of the collection
+         */
+        void onOrphanKeysCollected(@NonNull Result result);
+    }
+
+    /**
+     * Result of the collection.
+     */
+    public static final class Result {
+        private final int orphanKeys;
+        private final int reclaimedKeys;
+        private final long durationMillis;
+
+        // failure of listing the keys, null if keys are listed
+        @Nullable
+        private final Exception error;
+
+        Result(final int orphanKeys,
+               final int reclaimedKeys,
+               final long durationMillis,
+               @Nullable final Exception error) {
+            this.orphanKeys = orphanKeys;
+            this.reclaimedKeys = reclaimedKeys;
+            this.durationMillis = durationMillis;
+            this.error = error;
+        }
+
+        /**
+         * @return true if keys of the key store could be listed. Orphan keys are not known and
+         * none is deleted otherwise, see {@link #getError()}.
+         */
+        public boolean isSuccessful() {
+            return error == null;
+        }
+
+        /**
+         * @return failure of listing the keys of the key store, or null if collection succeeded
+         */
+        @Nullable
+        public Exception getError() {
+            return error;
+        }
+
+        /**
+         * @return number of orphan keys found in key store
+         */
+        public int getOrphanKeys() {
+            return orphanKeys;
+        }
+
+        /**
+         * @return number of orphan keys deleted from key store
+         */
+        public int getReclaimedKeys() {
+            return reclaimedKeys;
+        }
+
+        /**
+         * @return time taken by the collection in milliseconds
+         */
+        public long getDurationMillis() {
+            return durationMillis;
+        }
+    }
+
+    private OrphanKeyCollector() {
+        // no instance
+    }
+
+    /**
+     * Delete every key created by this library except the live ones.
+     * <p>
+     * Key of {@link FingerprintKeyManager#DEFAULT_KEY_NAME} is always kept.
+     *
+     * @param liveKeyNames      names of keys still in use ({@link FingerprintDialogBuilder#keyName(String)}),
+     *                          including keys of builders which are not shown yet
+     * @param includeLegacyKeys true to delete random UUID keys created by older versions of the
+     *                          library too. Application must not store its own keys under UUID
+     *                          aliases if this is true.
+     * @param callback          {@link Callback} to get the {@link Result}
+     */
+    @MainThread
+    public static void collect(@NonNull final Collection<String> liveKeyNames,
+                               final boolean includeLegacyKeys,
+                               @Nullable final Callback callback) {
+        final Set<String> liveAliases = new HashSet<>();
+        liveAliases.add(FingerprintKeyManager.toAlias(FingerprintKeyManager.DEFAULT_KEY_NAME));
+        for (String keyName : liveKeyNames) {
+            liveAliases.add(FingerprintKeyManager.toAlias(keyName));
+        }
+
+        final long startTime = SystemClock.elapsedRealtime();
+        LibraryExecutors.background().execute(new Runnable() {
+            @Override
+            public void run() {
+                final List<String> orphans;
+                try {
+                    orphans = findOrphans(liveAliases, includeLegacyKeys);
+                } catch (GeneralSecurityException | IOException e) {
+                    // key store cannot be accessed, nothing is deleted
+                    notifyCollected(new Result(0, 0, SystemClock.elapsedRealtime() - startTime, e),
+                            callback);
+                    return;
+                }
+                deleteBatch(orphans, 0, 0, startTime, callback);
+            }
+        });
+    }
+
+    /**
+     * Find aliases of orphan keys.
+     *
+     * @param liveAliases       aliases to keep
+     * @param includeLegacyKeys true to include random UUID aliases
+     * @return aliases of orphan keys
+     * @throws GeneralSecurityException if key store cannot be accessed
+     * @throws IOException              if key store cannot be loaded
+     */
+    @NonNull
+    private static List<String> findOrphans(@NonNull final Set<String> liveAliases,
+                                            final boolean includeLegacyKeys)
+            throws GeneralSecurityException, IOException {
+        final List<String> orphans = new ArrayList<>();
+        for (final String alias : FingerprintKeyManager.getKeyProvider().aliases()) {
+            if (isLive(alias, liveAliases)) continue;
+
+            if (alias.startsWith(FingerprintKeyManager.KEY_ALIAS_PREFIX)
+                    || (includeLegacyKeys && LEGACY_ALIAS.matcher(alias).matches())) {
+                orphans.add(alias);
+            }
+        }
+        return orphans;
+    }
+
+    /**
+     * Check if alias belongs to a live key. Alias of a key may carry key parameters after the
+     * key name, e.g. validity window.
+     *
+     * @param alias       alias to check
+     * @param liveAliases aliases of live key names
+     * @return true if key is live
+     */
+    private static boolean isLive(@NonNull final String alias, @NonNull final Set<String> liveAliases) {
+        final int separator = alias.indexOf(FingerprintKeyManager.KEY_PARAMETER_SEPARATOR,
+                FingerprintKeyManager.KEY_ALIAS_PREFIX.length());
+        return liveAliases.contains(separator == -1 ? alias : alias.substring(0, separator));
+    }
+
+    /**
+     * Delete one batch of orphan keys and schedule the next one.
+     *
+     * @param orphans   aliases of orphan keys
+     * @param offset    index of the first key of the batch
+     * @param reclaimed number of keys deleted so far
+     * @param startTime start time of the collection
+     * @param callback  {@link Callback} to notify once all batches are deleted
+     */
+    private static void deleteBatch(@NonNull final List<String> orphans,
+                                     final int offset,
+                                     final int reclaimed,
+                                     final long startTime,
+                                     @Nullable final Callback callback) {
+        final int end = Math.min(offset + BATCH_SIZE, orphans.size());
+        int deleted = reclaimed;
+        for (int i = offset; i < end; i++) {
+            try {
+                FingerprintKeyManager.getKeyProvider().deleteKey(orphans.get(i));
+                deleted++;
+            } catch (GeneralSecurityException | IOException e) {
+                // key is kept, continue with the others
+            }
+        }
+
+        if (end < orphans.size()) {
+            // let other key store work run between batches
+            final int reclaimedSoFar = deleted;
+            LibraryExecutors.background().execute(new Runnable() {
+                @Override
+                public void run() {
+                    deleteBatch(orphans, end, reclaimedSoFar, startTime, callback);
+                }
+            });
+        } else {
+            notifyCollected(new Result(orphans.size(), deleted,
+                    SystemClock.elapsedRealtime() - startTime, null), callback);
+        }
+    }
+
+    /**
+     * Notify callback on the main thread.
+     *
+     * @param result   {@link Result} of the collection
+     * @param callback {@link Callback} to notify, or null
+     */
+    private static void notifyCollected(@NonNull final Result result,
+                                        @Nullable final Callback callback) {
+        if (callback == null) return;
+
+        LibraryExecutors.mainThread().post(new Runnable() {
+            @Override
+            public void run() {
+                callback.onOrphanKeysCollected(result);
+            }
+        });
+    }
+}
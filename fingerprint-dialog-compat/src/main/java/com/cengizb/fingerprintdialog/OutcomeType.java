@@ -0,0 +1,49 @@
+package com.cengizb.fingerprintdialog;
+
+import android.support.annotation.IntDef;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+
+/**
+ * Created by cengizb on 18.10.2026
+ * <p>
+ * Types of {@link AuthenticationOutcome}, one for every final event of
+ * {@link AuthenticationCallback}.
+ *
+ * @author <a href="https://github.com/cengizbayrak">cengizb</a>
+ */
+@Retention(RetentionPolicy.SOURCE)
+@IntDef({OutcomeType.SUCCEEDED,
+        OutcomeType.CANCELED_BY_USER,
+        OutcomeType.NOT_SUPPORTED,
+        OutcomeType.NO_ENROLLED,
+        OutcomeType.ERROR})
+public @interface OutcomeType {
+
+    /**
+     * User is authenticated, see {@link AuthenticationCallback#onAuthenticationSucceeded()}.
+     */
+    int SUCCEEDED = 0;
+
+    /**
+     * User canceled the dialog, see {@link AuthenticationCallback#authenticationCanceledByUser()}.
+     */
+    int CANCELED_BY_USER = 1;
+
+    /**
+     * Fingerprint authentication is not supported, see
+     * {@link AuthenticationCallback#fingerprintAuthenticationNotSupported()}.
+     */
+    int NOT_SUPPORTED = 2;
+
+    /**
+     * No fingerprint enrolled, see {@link AuthenticationCallback#noEnrolledFingerprints()}.
+     */
+    int NO_ENROLLED = 3;
+
+    /**
+     * Unrecoverable error, see {@link AuthenticationCallback#onAuthenticationError(int, CharSequence)}.
+     */
+    int ERROR = 4;
+}
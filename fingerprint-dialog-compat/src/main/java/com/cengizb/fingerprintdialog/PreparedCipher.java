@@ -0,0 +1,205 @@
+package com.cengizb.fingerprintdialog;
+
+import android.annotation.TargetApi;
+import android.os.Build;
+import android.security.keystore.KeyPermanentlyInvalidatedException;
+import android.security.keystore.UserNotAuthenticatedException;
+import android.support.annotation.MainThread;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import java.io.IOException;
+import java.security.GeneralSecurityException;
+
+import javax.crypto.Cipher;
+
+/**
+ * Created by cengizb on 18.10.2026
+ * <p>
+ * Cipher prepared on the background thread of {@link LibraryExecutors#background()}.
+ * <p>
+ * Key generation and cipher initialization are slow key store operations. Preparing the cipher
+ * before the dialog is resumed lets this work overlap with the dialog enter animation instead of
+ * blocking the main thread.
+ *
+ * @author <a href="https://github.com/cengizbayrak">cengizb</a>
+ */
+@TargetApi(Build.VERSION_CODES.M)
+final class PreparedCipher {
+
+    /**
+     * Notified on the main thread once cipher is prepared.
+     */
+    interface Listener {
+
+        /**
+         * @param cipher initialized cipher or null if key store cannot be accessed, if
+         *               authentication is required, see {@link #isAuthenticationRequired()}, or
+         *               if key of the decryption is lost, see {@link #isKeyInvalidated()}
+         */
+        void onCipherReady(@Nullable Cipher cipher);
+    }
+
+    // configuration the cipher is prepared with
+    @NonNull
+    private final CipherConfig config;
+
+    // prepared cipher, valid once isReady is true
+    @Nullable
+    private Cipher cipher;
+
+    private boolean isReady = false;
+
+    // key has a validity window and user is not authenticated within it
+    private boolean isAuthenticationRequired = false;
+
+    // key of the decryption is permanently invalidated or missing
+    private boolean isKeyInvalidated = false;
+
+    // listener waiting for the cipher
+    @Nullable
+    private Listener listener;
+
+    private PreparedCipher(@NonNull final CipherConfig config) {
+        this.config = config;
+    }
+
+    /**
+     * Start preparing cipher for key on the background thread.
+     *
+     * @param config {@link CipherConfig} of the cipher
+     * @return {@link PreparedCipher}
+     */
+    @MainThread
+    @NonNull
+    static PreparedCipher prepare(@NonNull final CipherConfig config) {
+        final PreparedCipher preparedCipher = new PreparedCipher(config);
+        LibraryExecutors.background().execute(new Runnable() {
+            @Override
+            public void run() {
+                Cipher cipher = null;
+                boolean isAuthenticationRequired = false;
+                boolean isKeyInvalidated = false;
+                try {
+                    cipher = config.keyManager().createCipherOrThrow(config.iv());
+                } catch (UserNotAuthenticatedException e) {
+                    isAuthenticationRequired = true;
+                } catch (KeyPermanentlyInvalidatedException e) {
+                    isKeyInvalidated = true;
+                } catch (GeneralSecurityException | IOException e) {
+                    // key store cannot be accessed
+                }
+
+                final Cipher preparedResult = cipher;
+                final boolean authenticationRequired = isAuthenticationRequired;
+                final boolean keyInvalidated = isKeyInvalidated;
+                LibraryExecutors.mainThread().post(new Runnable() {
+                    @Override
+                    public void run() {
+                        preparedCipher.onPrepared(preparedResult, authenticationRequired,
+                                keyInvalidated);
+                    }
+                });
+            }
+        });
+        return preparedCipher;
+    }
+
+    /**
+     * Check if cipher is prepared with the configuration.
+     *
+     * @param config {@link CipherConfig}
+     * @return true if cipher matches
+     */
+    boolean matches(@NonNull final CipherConfig config) {
+        return this.config.equals(config);
+    }
+
+    /**
+     * Check if cipher is ready without a cipher, so it must be prepared again to be used.
+     *
+     * @return true if preparation failed
+     */
+    @MainThread
+    boolean isFailed() {
+        return isReady && cipher == null;
+    }
+
+    /**
+     * Check if cipher could not be prepared because key has a validity window and user is not
+     * authenticated within it. Valid once the cipher is ready.
+     *
+     * @return true if user must authenticate before the key can be used
+     */
+    @MainThread
+    boolean isAuthenticationRequired() {
+        return isAuthenticationRequired;
+    }
+
+    /**
+     * Check if cipher could not be prepared because key of the decryption is permanently
+     * invalidated or missing. Valid once the cipher is ready.
+     *
+     * @return true if encrypted data cannot be decrypted anymore, see
+     * {@link ErrorCode#KEY_INVALIDATED}
+     */
+    @MainThread
+    boolean isKeyInvalidated() {
+        return isKeyInvalidated;
+    }
+
+    /**
+     * Notify listener once cipher is prepared. Listener is notified immediately if cipher is
+     * already prepared.
+     * <p>
+     * Only one listener is supported, it replaces the previous one.
+     *
+     * @param listener {@link Listener}
+     */
+    @MainThread
+    void whenReady(@NonNull final Listener listener) {
+        if (isReady) {
+            listener.onCipherReady(cipher);
+        } else {
+            this.listener = listener;
+        }
+    }
+
+    /**
+     * Stop waiting for the cipher. Listener will not be notified.
+     */
+    @MainThread
+    void cancel() {
+        listener = null;
+    }
+
+    /**
+     * Return the cipher to the pool once it is ready, it will not be used. Listener will not be
+     * notified.
+     */
+    @MainThread
+    void discard() {
+        whenReady(new Listener() {
+            @Override
+            public void onCipherReady(@Nullable final Cipher cipher) {
+                if (cipher != null) FingerprintKeyManager.releaseCipher(cipher);
+            }
+        });
+    }
+
+    @MainThread
+    private void onPrepared(@Nullable final Cipher cipher,
+                            final boolean isAuthenticationRequired,
+                            final boolean isKeyInvalidated) {
+        this.cipher = cipher;
+        this.isAuthenticationRequired = isAuthenticationRequired;
+        this.isKeyInvalidated = isKeyInvalidated;
+        isReady = true;
+
+        if (listener != null) {
+            final Listener listener = this.listener;
+            this.listener = null;
+            listener.onCipherReady(cipher);
+        }
+    }
+}
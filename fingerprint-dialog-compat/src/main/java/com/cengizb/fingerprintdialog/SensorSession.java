@@ -0,0 +1,523 @@
+package com.cengizb.fingerprintdialog;
+
+import android.annotation.TargetApi;
+import android.content.Context;
+import android.hardware.fingerprint.FingerprintManager;
+import android.os.Build;
+import android.os.CancellationSignal;
+import android.support.annotation.MainThread;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.crypto.Cipher;
+
+/**
+ * Created by cengizb on 18.10.2026
+ * <p>
+ * Fingerprint authentication of a compat dialog, kept apart from the dialog instance.
+ * <p>
+ * Session owns the cipher, the {@link CancellationSignal} and the sensor callback. Sessions are
+ * registered by id, which the dialog keeps in its arguments, so the dialog recreated after a
+ * configuration change reattaches to the running session instead of deriving the key and arming
+ * the sensor again. Session may also be started by the builder before its dialog is displayed.
+ * Sensor events arriving while no dialog is attached are kept and delivered once a dialog
+ * attaches.
+ * <p>
+ * Callback is notified of exactly one result, unless the application cancels the session: a
+ * session released before its result, e.g. by the cancel button or back press of the dialog, is
+ * canceled by the user. Events of a sensor stopped by the session itself are dropped. All methods
+ * must be called on the main thread.
+ *
+ * @author <a href="https://github.com/cengizbayrak">cengizb</a>
+ */
+@SuppressWarnings("deprecation")
+@TargetApi(Build.VERSION_CODES.M)
+final class SensorSession {
+    // time a detached session waits for a recreated dialog before it is released
+    private static final long RETAIN_TIMEOUT_MILLIS = 5000;
+
+    // types of sensor events
+    private static final int EVENT_NONE = -1;
+    private static final int EVENT_HELP = 0;
+    private static final int EVENT_FAILED = 1;
+    private static final int EVENT_ERROR = 2;
+    private static final int EVENT_FINISHED = 3;
+
+    // sessions which are not released, by id
+    private static final Map<Integer, SensorSession> sessions = new HashMap<>();
+
+    // id of the next session
+    private static int nextId = 1;
+
+    /**
+     * Dialog displaying the session. Notified on the main thread.
+     */
+    interface Listener {
+
+        /**
+         * @param help help text of the sensor
+         */
+        void onSensorHelp(@NonNull CharSequence help);
+
+        /**
+         * Fingerprint is not recognised, sensor keeps scanning.
+         */
+        void onSensorFailed();
+
+        /**
+         * Authentication finished with an error, dialog should display it and close.
+         *
+         * @param error error text of the sensor
+         */
+        void onSensorError(@NonNull CharSequence error);
+
+        /**
+         * Authentication finished, dialog should close.
+         */
+        void onSensorFinished();
+    }
+
+    // id of the session in the registry
+    private final int id;
+
+    // notify caller about authentication status
+    @NonNull
+    private final AuthenticationCallback callback;
+
+    // phases of the authentication
+    @Nullable
+    private final AuthenticationTrace trace;
+
+    // cipher for fingerprint authentication, prepared on background thread
+    @Nullable
+    private PreparedCipher preparedCipher;
+
+    // cipher of the running authentication
+    @Nullable
+    private Cipher activeCipher;
+
+    // cancellation signal for fingerprint authentication
+    @Nullable
+    private CancellationSignal cancellationSignal;
+
+    // sensor is armed or waiting for the cipher
+    private boolean isStarted = false;
+
+    // dialog is paused, sensor is stopped once the grace period expires
+    private boolean isSuspended = false;
+
+    // dialog displaying the session
+    @Nullable
+    private Listener listener;
+
+    // last help or failure while no dialog is attached, kept as fields so events do not allocate
+    private int pendingType = EVENT_NONE;
+    @Nullable
+    private CharSequence pendingText;
+
+    // event which finished the authentication, delivered to every dialog attaching later
+    private int finalType = EVENT_NONE;
+    @Nullable
+    private CharSequence finalText;
+
+    // releases the session if no dialog attaches after a configuration change
+    private final Runnable expiry = new Runnable() {
+        @Override
+        public void run() {
+            release();
+        }
+    };
+
+    // stops the sensor once the grace period of a pause expires
+    private final Runnable suspension = new Runnable() {
+        @Override
+        public void run() {
+            stop();
+        }
+    };
+
+    private SensorSession(final int id,
+                          @NonNull final AuthenticationCallback callback,
+                          @Nullable final AuthenticationTrace trace,
+                          @Nullable final PreparedCipher preparedCipher) {
+        this.id = id;
+        this.callback = callback;
+        this.trace = trace;
+        this.preparedCipher = preparedCipher;
+    }
+
+    /**
+     * Create and register a session.
+     *
+     * @param callback       {@link AuthenticationCallback} to notify
+     * @param trace          {@link AuthenticationTrace} of the authentication, or null
+     * @param preparedCipher cipher prepared in advance, or null
+     * @return {@link SensorSession}
+     */
+    @MainThread
+    @NonNull
+    static SensorSession create(@NonNull final AuthenticationCallback callback,
+                                @Nullable final AuthenticationTrace trace,
+                                @Nullable final PreparedCipher preparedCipher) {
+        final SensorSession session = new SensorSession(nextId++, callback, trace, preparedCipher);
+        sessions.put(session.id, session);
+        return session;
+    }
+
+    /**
+     * Find a registered session.
+     *
+     * @param id id of the session
+     * @return session or null if it is released, e.g. process was restarted
+     */
+    @MainThread
+    @Nullable
+    static SensorSession find(final int id) {
+        return sessions.get(id);
+    }
+
+    /**
+     * @return id of the session
+     */
+    int getId() {
+        return id;
+    }
+
+    /**
+     * @return true if sensor is armed, waiting for the cipher, or authentication is finished
+     */
+    @MainThread
+    boolean isStarted() {
+        return isStarted || isOver();
+    }
+
+    /**
+     * @return true if authentication is finished, callback is notified or session is canceled
+     */
+    @MainThread
+    boolean isOver() {
+        return finalType != EVENT_NONE;
+    }
+
+    /**
+     * Attach dialog displaying the session, and deliver the events it missed. Sensor suspended
+     * within the grace period keeps running.
+     *
+     * @param listener {@link Listener}
+     */
+    @MainThread
+    void attach(@NonNull final Listener listener) {
+        LibraryExecutors.mainThread().removeCallbacks(expiry);
+        LibraryExecutors.mainThread().removeCallbacks(suspension);
+        isSuspended = false;
+        this.listener = listener;
+
+        final int pending = pendingType;
+        final CharSequence pendingText = this.pendingText;
+        clearPending();
+        if (finalType != EVENT_NONE) {
+            deliver(listener, finalType, finalText);
+        } else if (pending != EVENT_NONE) {
+            deliver(listener, pending, pendingText);
+        }
+    }
+
+    /**
+     * Detach dialog displaying the session.
+     *
+     * @param retain true if the dialog is recreated, e.g. on a configuration change. Session keeps
+     *               running for a while and is released if no dialog attaches.
+     */
+    @MainThread
+    void detach(final boolean retain) {
+        listener = null;
+        if (retain) LibraryExecutors.mainThread().postDelayed(expiry, RETAIN_TIMEOUT_MILLIS);
+    }
+
+    /**
+     * Stop the sensor once the grace period expires, unless a dialog attaches within it. Brief
+     * interruptions, e.g. notification shade or a system dialog, keep the armed sensor this way.
+     *
+     * @param graceMillis grace period in milliseconds, or 0 to stop immediately
+     */
+    @MainThread
+    void suspend(final long graceMillis) {
+        if (graceMillis <= 0 || !isStarted) {
+            stop();
+            return;
+        }
+        isSuspended = true;
+        LibraryExecutors.mainThread().postDelayed(suspension, graceMillis);
+    }
+
+    /**
+     * Start fingerprint authentication by enabling the finger print sensor.
+     *
+     * @param context      {@link Context} of the dialog
+     * @param capabilities {@link FingerprintCapabilities} checked on resume
+     * @param cipherConfig {@link CipherConfig} of the cipher to unlock, or null to authenticate
+     *                     without a cipher
+     */
+    @MainThread
+    void start(@NonNull final Context context,
+               @NonNull final FingerprintCapabilities capabilities,
+               @Nullable final CipherConfig cipherConfig) {
+        if (isStarted) stop();
+        final FingerprintManager fpm;
+        fpm = (FingerprintManager) context.getSystemService(Context.FINGERPRINT_SERVICE);
+
+        //Cannot access the fingerprint manager, or device has no fingerprint hardware.
+        if (fpm == null || !capabilities.isHardwareDetected()) {
+            callback.fingerprintAuthenticationNotSupported();
+            finish(EVENT_FINISHED, null);
+            return;
+        }
+
+        //No fingerprint enrolled.
+        if (!capabilities.hasEnrolledFingerprints()) {
+            callback.noEnrolledFingerprints();
+            finish(EVENT_FINISHED, null);
+            return;
+        }
+
+        if (cipherConfig == null) {
+            // authenticate without a cipher
+            isStarted = true;
+            authenticate(fpm, null);
+            return;
+        }
+
+        // cipher is prepared on background thread, sensor is armed once it is ready
+        if (preparedCipher == null) preparedCipher = PreparedCipher.prepare(cipherConfig);
+        final PreparedCipher preparing = preparedCipher;
+        isStarted = true;
+        preparing.whenReady(new PreparedCipher.Listener() {
+            @Override
+            public void onCipherReady(@Nullable final Cipher cipher) {
+                // cipher can be used for one authentication only
+                preparedCipher = null;
+
+                if (cipher != null) {
+                    AuthenticationTrace.mark(trace, AuthenticationPhase.CIPHER_READY);
+                    activeCipher = cipher;
+                    authenticate(fpm, new FingerprintManager.CryptoObject(cipher));
+                } else if (preparing.isKeyInvalidated()) {
+                    isStarted = false;
+                    callback.onAuthenticationError(ErrorCode.KEY_INVALIDATED, null);
+                    finish(EVENT_FINISHED, null);
+                } else {
+                    //Cannot access the secure keystore.
+                    isStarted = false;
+                    callback.fingerprintAuthenticationNotSupported();
+                    finish(EVENT_FINISHED, null);
+                }
+            }
+        });
+    }
+
+    /**
+     * Enable the finger print sensor.
+     *
+     * @param fpm {@link FingerprintManager}
+     * @param co  {@link FingerprintManager.CryptoObject} to authenticate, or null
+     */
+    private void authenticate(@NonNull final FingerprintManager fpm,
+                              @Nullable final FingerprintManager.CryptoObject co) {
+        final CancellationSignal signal = new CancellationSignal();
+        final FingerprintManager.AuthenticationCallback authCallback = new FingerprintManager.AuthenticationCallback() {
+            @Override
+            public void onAuthenticationError(int errMsgId, CharSequence errString) {
+                // sensor is stopped by the session, which reports the outcome itself
+                if (signal != cancellationSignal) return;
+
+                AuthenticationMetrics.getInstance().recordError(errMsgId);
+                if (isSuspended && errMsgId == FingerprintManager.FINGERPRINT_ERROR_CANCELED) {
+                    // system canceled the sensor of the paused dialog, it is armed again on resume
+                    cancellationSignal = null;
+                    stop();
+                    return;
+                }
+                isStarted = false;
+                cancellationSignal = null;
+
+                switch (errMsgId) {
+                    case FingerprintManager.FINGERPRINT_ERROR_CANCELED:
+                    case FingerprintManager.FINGERPRINT_ERROR_USER_CANCELED:
+                        callback.authenticationCanceledByUser();
+                        break;
+                    case FingerprintManager.FINGERPRINT_ERROR_HW_NOT_PRESENT:
+                    case FingerprintManager.FINGERPRINT_ERROR_HW_UNAVAILABLE:
+                        callback.fingerprintAuthenticationNotSupported();
+                        break;
+                    default:
+                        callback.onAuthenticationError(errMsgId, errString);
+                }
+                finish(EVENT_ERROR, errString);
+            }
+
+            @Override
+            public void onAuthenticationHelp(int helpMsgId, CharSequence helpString) {
+                if (signal != cancellationSignal) return;
+                AuthenticationMetrics.getInstance().recordHelp(helpMsgId);
+                dispatch(EVENT_HELP, helpString);
+                callback.onAuthenticationHelp(helpMsgId, helpString);
+            }
+
+            @Override
+            public void onAuthenticationFailed() {
+                if (signal != cancellationSignal) return;
+                dispatch(EVENT_FAILED, null);
+                callback.onAuthenticationFailed();
+            }
+
+            @Override
+            public void onAuthenticationSucceeded(FingerprintManager.AuthenticationResult result) {
+                if (signal != cancellationSignal) return;
+                isStarted = false;
+                cancellationSignal = null;
+
+                // unlocked cipher is handed over to the callback
+                final Cipher cipher = activeCipher;
+                activeCipher = null;
+                Callbacks.notifySucceeded(callback, cipher);
+                finish(EVENT_FINISHED, null);
+            }
+        };
+
+        cancellationSignal = signal;
+
+        fpm.authenticate(co, signal, 0, authCallback, LibraryExecutors.mainThread());
+        AuthenticationTrace.mark(trace, AuthenticationPhase.SENSOR_ARMED);
+    }
+
+    /**
+     * Stop fingerprint authentication if running. Prepared cipher is kept for the next start.
+     */
+    @MainThread
+    void stop() {
+        LibraryExecutors.mainThread().removeCallbacks(suspension);
+        isSuspended = false;
+
+        // stop waiting for the cipher, it is kept for the next start
+        if (preparedCipher != null) preparedCipher.cancel();
+
+        if (cancellationSignal != null) {
+            cancellationSignal.cancel();
+            cancellationSignal = null;
+        }
+        isStarted = false;
+        clearPending();
+
+        // cipher is re-initialized for the next authentication
+        if (activeCipher != null) {
+            FingerprintKeyManager.releaseCipher(activeCipher);
+            activeCipher = null;
+        }
+    }
+
+    /**
+     * Stop fingerprint authentication without notifying the callback, and close the dialog
+     * displaying the session, now or once it attaches. Used once the application cancels the
+     * authentication.
+     */
+    @MainThread
+    void cancel() {
+        if (isOver()) return;
+        stop();
+        finish(EVENT_FINISHED, null);
+    }
+
+    /**
+     * Stop fingerprint authentication because the user left the dialog, e.g. by its cancel button
+     * or back press, and notify {@link AuthenticationCallback#authenticationCanceledByUser()}.
+     * Dialog closes itself. Nothing happens if the authentication is over already.
+     */
+    @MainThread
+    void cancelByUser() {
+        if (isOver()) return;
+        stop();
+        finalType = EVENT_FINISHED;
+        callback.authenticationCanceledByUser();
+    }
+
+    /**
+     * Stop fingerprint authentication and remove the session from the registry. Cipher which is
+     * still being prepared is returned to the pool once it is ready.
+     * <p>
+     * Session released before its result, e.g. its dialog is dismissed or not recreated after a
+     * configuration change, is canceled by the user, see {@link #cancelByUser()}.
+     */
+    @MainThread
+    void release() {
+        LibraryExecutors.mainThread().removeCallbacks(expiry);
+        listener = null;
+        cancelByUser();
+        stop();
+        if (preparedCipher != null) {
+            preparedCipher.discard();
+            preparedCipher = null;
+        }
+        sessions.remove(id);
+    }
+
+    /**
+     * Deliver help or failure to the dialog, or keep it until a dialog attaches.
+     *
+     * @param type type of the event
+     * @param text text of the event, or null
+     */
+    private void dispatch(final int type, @Nullable final CharSequence text) {
+        if (listener != null) {
+            deliver(listener, type, text);
+        } else {
+            pendingType = type;
+            pendingText = text;
+        }
+    }
+
+    /**
+     * Deliver event which finished the authentication.
+     *
+     * @param type type of the event
+     * @param text text of the event, or null
+     */
+    private void finish(final int type, @Nullable final CharSequence text) {
+        finalType = type;
+        finalText = text;
+        clearPending();
+        if (listener != null) deliver(listener, type, text);
+    }
+
+    private void clearPending() {
+        pendingType = EVENT_NONE;
+        pendingText = null;
+    }
+
+    /**
+     * Deliver sensor event to the dialog.
+     *
+     * @param listener {@link Listener} of the dialog
+     * @param type     type of the event
+     * @param text     text of the event, or null
+     */
+    private static void deliver(@NonNull final Listener listener,
+                                final int type,
+                                @Nullable final CharSequence text) {
+        switch (type) {
+            case EVENT_HELP:
+                listener.onSensorHelp(text != null ? text : "");
+                break;
+            case EVENT_FAILED:
+                listener.onSensorFailed();
+                break;
+            case EVENT_ERROR:
+                listener.onSensorError(text != null ? text : "");
+                break;
+            default:
+                listener.onSensorFinished();
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.cengizb.fingerprintdialog;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.Executor;
+
+/**
+ * Created by cengizb on 18.10.2026
+ * <p>
+ * Runs tasks on another {@link Executor} one at a time, in the order they are submitted, even if
+ * that executor runs tasks in parallel, e.g. a thread pool. Task which throws or is rejected by
+ * the executor does not stop the tasks after it.
+ *
+ * @author <a href="https://github.com/cengizbayrak">cengizb</a>
+ */
+final class SerialExecutor implements Executor {
+
+    @NonNull
+    private final Executor executor;
+
+    // guarded by this
+    private final Queue<Runnable> tasks = new ArrayDeque<>();
+
+    // task running on the executor, guarded by this
+    @Nullable
+    private Runnable active;
+
+    /**
+     * Package private constructor.
+     *
+     * @param executor {@link Executor} to run the tasks on
+     */
+    SerialExecutor(@NonNull final Executor executor) {
+        this.executor = executor;
+    }
+
+    @Override
+    public synchronized void execute(@NonNull final Runnable task) {
+        final Runnable serial = new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    task.run();
+                } finally {
+                    scheduleNext(null);
+                }
+            }
+        };
+        tasks.offer(serial);
+        if (active == null) scheduleNext(serial);
+    }
+
+    /**
+     * Run the next task on the executor. Tasks which the executor rejects are dropped until one is
+     * accepted or the queue is empty, rejection is thrown only if the caller's own task is
+     * dropped.
+     *
+     * @param own task submitted by the caller, or null if a finished task schedules the next one
+     */
+    private synchronized void scheduleNext(@Nullable final Runnable own) {
+        RuntimeException rejection = null;
+        while ((active = tasks.poll()) != null) {
+            try {
+                executor.execute(active);
+                break;
+            } catch (RuntimeException e) {
+                // task never runs, so it cannot schedule the next one
+                if (active == own) rejection = e;
+                active = null;
+            }
+        }
+        if (rejection != null) throw rejection;
+    }
+}
@@ -0,0 +1,48 @@
+package com.cengizb.fingerprintdialog;
+
+import android.support.annotation.IntDef;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+
+/**
+ * Created by cengizb on 18.10.2026
+ * <p>
+ * States of an {@link AuthenticationSession}. Session is {@link #ACTIVE} until the first of the
+ * other states is reached, and never changes its state after that.
+ *
+ * @author <a href="https://github.com/cengizbayrak">cengizb</a>
+ */
+@Retention(RetentionPolicy.SOURCE)
+@IntDef({SessionState.ACTIVE,
+        SessionState.SUCCEEDED,
+        SessionState.FAILED,
+        SessionState.CANCELED,
+        SessionState.TIMED_OUT})
+public @interface SessionState {
+
+    /**
+     * Dialog is being displayed or sensor is armed.
+     */
+    int ACTIVE = 0;
+
+    /**
+     * User is authenticated.
+     */
+    int SUCCEEDED = 1;
+
+    /**
+     * Authentication finished without success, e.g. canceled by user, not supported or an error.
+     */
+    int FAILED = 2;
+
+    /**
+     * Application canceled the session by {@link AuthenticationSession#cancel()}.
+     */
+    int CANCELED = 3;
+
+    /**
+     * Deadline of the session expired, see {@link FingerprintDialogBuilder#timeout(long)}.
+     */
+    int TIMED_OUT = 4;
+}
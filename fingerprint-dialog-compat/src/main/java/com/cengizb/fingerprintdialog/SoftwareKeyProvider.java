@@ -0,0 +1,91 @@
+package com.cengizb.fingerprintdialog;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import java.security.GeneralSecurityException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.crypto.Cipher;
+import javax.crypto.KeyGenerator;
+import javax.crypto.SecretKey;
+
+/**
+ * Created by cengizb on 18.10.2026
+ * <p>
+ * {@link KeyProvider} which keeps keys in memory and uses plain JCE ciphers.
+ * <p>
+ * Keys are not protected by user authentication and are lost with the process. This provider is
+ * meant for unit tests and benchmarks of the crypto path on the JVM, not for production.
+ *
+ * @author <a href="https://github.com/cengizbayrak">cengizb</a>
+ */
+@SuppressWarnings("WeakerAccess")
+public class SoftwareKeyProvider implements KeyProvider {
+    private static final String AES = "AES";
+
+    private static final int KEY_SIZE = 256;
+
+    // generated keys by alias
+    private final Map<String, SecretKey> keys = new ConcurrentHashMap<>();
+
+    // idle ciphers
+    private final CipherPool ciphers = new CipherPool();
+
+    @Nullable
+    @Override
+    public SecretKey getKey(@NonNull final String alias) {
+        return keys.get(alias);
+    }
+
+    @NonNull
+    @Override
+    public SecretKey generateKey(@NonNull final String alias,
+                                 final int validitySeconds,
+                                 @CipherMode final int cipherMode) throws GeneralSecurityException {
+        final KeyGenerator keyGenerator = KeyGenerator.getInstance(AES);
+        keyGenerator.init(KEY_SIZE);
+        final SecretKey key = keyGenerator.generateKey();
+        keys.put(alias, key);
+        return key;
+    }
+
+    @Override
+    public void deleteKey(@NonNull final String alias) {
+        keys.remove(alias);
+    }
+
+    @NonNull
+    @Override
+    public List<String> aliases() {
+        return new ArrayList<>(keys.keySet());
+    }
+
+    @NonNull
+    @Override
+    public Cipher acquireCipher(@CipherMode final int cipherMode) throws GeneralSecurityException {
+        return ciphers.acquire(transformation(cipherMode));
+    }
+
+    @Override
+    public void releaseCipher(@NonNull final Cipher cipher) {
+        ciphers.release(cipher);
+    }
+
+    /**
+     * Get JCE transformation of the cipher mode. PKCS7 padding is called PKCS5 by JCE providers,
+     * both are the same for AES.
+     *
+     * @param cipherMode {@link CipherMode}
+     * @return transformation for {@link Cipher#getInstance(String)}
+     */
+    @NonNull
+    private static String transformation(@CipherMode final int cipherMode) {
+        return cipherMode == CipherMode.CBC_PKCS7
+                ? AES + "/CBC/PKCS5Padding"
+                : CipherConfig.transformation(cipherMode);
+    }
+}
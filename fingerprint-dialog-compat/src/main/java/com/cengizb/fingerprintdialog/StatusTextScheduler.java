@@ -0,0 +1,145 @@
+package com.cengizb.fingerprintdialog;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.Message;
+import android.support.annotation.MainThread;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.view.Choreographer;
+import android.widget.TextView;
+
+/**
+ * Created by cengizb on 18.10.2026
+ * <p>
+ * Displays status text of the compat dialog for a while and clears it.
+ * <p>
+ * One instance is used for the whole life of a dialog. It posts only to its own handler, so
+ * {@link #cancel()} removes everything it scheduled. Bursts of help messages (e.g. finger moved
+ * too fast, partial finger) are coalesced: only the last message of a frame is displayed. Nothing
+ * is allocated per event. All methods must be called on the main thread.
+ *
+ * @author <a href="https://github.com/cengizbayrak">cengizb</a>
+ */
+@MainThread
+final class StatusTextScheduler implements Handler.Callback, Choreographer.FrameCallback {
+    // how long status text is displayed
+    private static final long DISPLAY_MILLIS = 1000;
+
+    private static final int MSG_CLEAR = 1;
+
+    /**
+     * Listener of cleared status text.
+     */
+    interface Listener {
+        /**
+         * Status text is cleared after it was displayed.
+         *
+         * @param dismiss true if dialog should be dismissed after the status text
+         */
+        void onStatusTextCleared(boolean dismiss);
+    }
+
+    @NonNull
+    private final Handler handler = new Handler(Looper.getMainLooper(), this);
+
+    @NonNull
+    private final Listener listener;
+
+    @Nullable
+    private TextView textView;
+
+    // help text waiting for the next frame
+    @Nullable
+    private CharSequence pendingHelp;
+
+    // frame callback is posted
+    private boolean frameScheduled;
+
+    // dialog is dismissed once the displayed text is cleared
+    private boolean dismissOnClear;
+
+    StatusTextScheduler(@NonNull final Listener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Set view to display status text in. View of a pooled dialog layout may change.
+     *
+     * @param textView status text view
+     */
+    void attach(@NonNull final TextView textView) {
+        cancel();
+        this.textView = textView;
+        textView.setText("");
+    }
+
+    /**
+     * Display help text at the next frame. Help text of the same frame replaces this one.
+     *
+     * @param text help text
+     */
+    void showHelp(@NonNull final CharSequence text) {
+        // help does not replace a text which dismisses the dialog
+        if (dismissOnClear) return;
+        pendingHelp = text;
+        if (!frameScheduled) {
+            frameScheduled = true;
+            Choreographer.getInstance().postFrameCallback(this);
+        }
+    }
+
+    /**
+     * Display text immediately, e.g. failure or error.
+     *
+     * @param text    text to display
+     * @param dismiss true if dialog should be dismissed once text is cleared
+     */
+    void show(@NonNull final CharSequence text, final boolean dismiss) {
+        cancelPendingHelp();
+        dismissOnClear |= dismiss;
+        display(text);
+    }
+
+    /**
+     * Cancel everything scheduled. Displayed text stays until the view is attached again.
+     */
+    void cancel() {
+        cancelPendingHelp();
+        handler.removeMessages(MSG_CLEAR);
+        dismissOnClear = false;
+    }
+
+    @Override
+    public void doFrame(final long frameTimeNanos) {
+        frameScheduled = false;
+        final CharSequence text = pendingHelp;
+        pendingHelp = null;
+        if (text != null) display(text);
+    }
+
+    @Override
+    public boolean handleMessage(final Message msg) {
+        if (msg.what != MSG_CLEAR) return false;
+        final boolean dismiss = dismissOnClear;
+        dismissOnClear = false;
+        if (textView != null) textView.setText("");
+        listener.onStatusTextCleared(dismiss);
+        return true;
+    }
+
+    private void display(@NonNull final CharSequence text) {
+        if (textView != null) textView.setText(text);
+        // displayed text is cleared after a while, from its last update
+        handler.removeMessages(MSG_CLEAR);
+        handler.sendEmptyMessageDelayed(MSG_CLEAR, DISPLAY_MILLIS);
+    }
+
+    private void cancelPendingHelp() {
+        pendingHelp = null;
+        if (frameScheduled) {
+            frameScheduled = false;
+            Choreographer.getInstance().removeFrameCallback(this);
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.cengizb.fingerprintdialog;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+/**
+ * Created by cengizb on 18.10.2026
+ * <p>
+ * Records sensor events and the result of an authentication into its {@link AuthenticationTrace},
+ * counts outcomes in {@link AuthenticationMetrics} and writes them to
+ * {@link AuthenticationEventRecorder}.
+ *
+ * @author <a href="https://github.com/cengizbayrak">cengizb</a>
+ */
+final class TracingCallback extends ForwardingCallback {
+
+    @NonNull
+    private final AuthenticationTrace trace;
+
+    @NonNull
+    private final AuthenticationMetrics metrics = AuthenticationMetrics.getInstance();
+
+    /**
+     * Package private constructor.
+     *
+     * @param delegate {@link AuthenticationCallback} implemented by caller
+     * @param trace    {@link AuthenticationTrace} of the authentication
+     */
+    TracingCallback(@NonNull final AuthenticationCallback delegate,
+                    @NonNull final AuthenticationTrace trace) {
+        super(delegate);
+        this.trace = trace;
+    }
+
+    @Override
+    public void fingerprintAuthenticationNotSupported() {
+        trace.mark(AuthenticationPhase.RESULT);
+        metrics.recordOutcome(AuthenticationMetrics.OUTCOME_NOT_SUPPORTED);
+        trace.record(AuthenticationEventRecorder.EVENT_NOT_SUPPORTED, 0);
+        super.fingerprintAuthenticationNotSupported();
+    }
+
+    @Override
+    public void noEnrolledFingerprints() {
+        trace.mark(AuthenticationPhase.RESULT);
+        metrics.recordOutcome(AuthenticationMetrics.OUTCOME_NO_ENROLLED);
+        trace.record(AuthenticationEventRecorder.EVENT_NO_ENROLLED, 0);
+        super.noEnrolledFingerprints();
+    }
+
+    @Override
+    public void authenticationCanceledByUser() {
+        trace.mark(AuthenticationPhase.RESULT);
+        metrics.recordOutcome(AuthenticationMetrics.OUTCOME_CANCELED);
+        trace.record(AuthenticationEventRecorder.EVENT_CANCELED, 0);
+        super.authenticationCanceledByUser();
+    }
+
+    @Override
+    public void onAuthenticationError(final int code, @Nullable final CharSequence error) {
+        trace.markSensorEvent();
+        trace.mark(AuthenticationPhase.RESULT);
+        metrics.recordOutcome(AuthenticationMetrics.OUTCOME_ERROR);
+        trace.record(AuthenticationEventRecorder.EVENT_ERROR, code);
+        super.onAuthenticationError(code, error);
+    }
+
+    @Override
+    public void onAuthenticationHelp(final int code, @Nullable final CharSequence help) {
+        trace.markSensorEvent();
+        trace.record(AuthenticationEventRecorder.EVENT_HELP, code);
+        super.onAuthenticationHelp(code, help);
+    }
+
+    @Override
+    public void onAuthenticationFailed() {
+        trace.markSensorEvent();
+        metrics.recordOutcome(AuthenticationMetrics.OUTCOME_FAILED);
+        trace.record(AuthenticationEventRecorder.EVENT_FAILED, 0);
+        super.onAuthenticationFailed();
+    }
+
+    @Override
+    public void onAuthenticationSucceeded() {
+        trace.markSensorEvent();
+        trace.mark(AuthenticationPhase.RESULT);
+        metrics.recordOutcome(AuthenticationMetrics.OUTCOME_SUCCEEDED);
+        trace.record(AuthenticationEventRecorder.EVENT_SUCCEEDED, 0);
+        super.onAuthenticationSucceeded();
+    }
+
+    @Override
+    public void onAuthenticationSucceeded(@NonNull final CipherStream cipher) {
+        trace.markSensorEvent();
+        trace.mark(AuthenticationPhase.RESULT);
+        metrics.recordOutcome(AuthenticationMetrics.OUTCOME_SUCCEEDED);
+        trace.record(AuthenticationEventRecorder.EVENT_SUCCEEDED, 0);
+        super.onAuthenticationSucceeded(cipher);
+    }
+}
@@ -0,0 +1,92 @@
+package com.cengizb.fingerprintdialog;
+
+import android.annotation.TargetApi;
+import android.os.Build;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import javax.crypto.Cipher;
+
+/**
+ * Created by cengizb on 18.10.2026
+ * <p>
+ * {@link AuthenticationCallback} of the dialog displayed once the validity window of a key
+ * expired.
+ * <p>
+ * Key with a validity window cannot be bound to the authentication, so the dialog authenticates
+ * without a cipher. Cipher is initialized once the authentication succeeded, which starts a new
+ * validity window.
+ *
+ * @author <a href="https://github.com/cengizbayrak">cengizb</a>
+ */
+@TargetApi(Build.VERSION_CODES.M)
+final class ValidityWindowCallback implements AuthenticationCallback {
+
+    @NonNull
+    private final AuthenticationCallback callback;
+
+    @NonNull
+    private final CipherConfig cipherConfig;
+
+    /**
+     * Package private constructor.
+     *
+     * @param callback     {@link AuthenticationCallback} implemented by caller
+     * @param cipherConfig {@link CipherConfig} of the key with validity window
+     */
+    ValidityWindowCallback(@NonNull final AuthenticationCallback callback,
+                           @NonNull final CipherConfig cipherConfig) {
+        this.callback = callback;
+        this.cipherConfig = cipherConfig;
+    }
+
+    @Override
+    public void onAuthenticationSucceeded() {
+        if (!Callbacks.wantsCipher(callback)) {
+            callback.onAuthenticationSucceeded();
+            return;
+        }
+
+        final PreparedCipher preparedCipher = PreparedCipher.prepare(cipherConfig);
+        preparedCipher.whenReady(new PreparedCipher.Listener() {
+            @Override
+            public void onCipherReady(@Nullable final Cipher cipher) {
+                if (cipher == null && preparedCipher.isKeyInvalidated()) {
+                    callback.onAuthenticationError(ErrorCode.KEY_INVALIDATED, null);
+                } else {
+                    Callbacks.notifySucceeded(callback, cipher);
+                }
+            }
+        });
+    }
+
+    @Override
+    public void fingerprintAuthenticationNotSupported() {
+        callback.fingerprintAuthenticationNotSupported();
+    }
+
+    @Override
+    public void noEnrolledFingerprints() {
+        callback.noEnrolledFingerprints();
+    }
+
+    @Override
+    public void authenticationCanceledByUser() {
+        callback.authenticationCanceledByUser();
+    }
+
+    @Override
+    public void onAuthenticationError(final int code, @Nullable final CharSequence error) {
+        callback.onAuthenticationError(code, error);
+    }
+
+    @Override
+    public void onAuthenticationHelp(final int code, @Nullable final CharSequence help) {
+        callback.onAuthenticationHelp(code, help);
+    }
+
+    @Override
+    public void onAuthenticationFailed() {
+        callback.onAuthenticationFailed();
+    }
+}
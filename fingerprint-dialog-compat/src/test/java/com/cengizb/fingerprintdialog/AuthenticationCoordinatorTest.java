@@ -0,0 +1,169 @@
+package com.cengizb.fingerprintdialog;
+
+import android.support.annotation.Nullable;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Created by cengizb on 18.10.2026
+ * <p>
+ * Coalescing of concurrent authentications by {@link AuthenticationCoordinator}, without a
+ * dialog: the flight callback is driven directly or through a {@link SensorSession}.
+ *
+ * @author <a href="https://github.com/cengizbayrak">cengizb</a>
+ */
+public class AuthenticationCoordinatorTest {
+
+    @Test
+    public void join_runningFlight_subscribes() {
+        final CipherConfig config = config("subscribe");
+        final Subscriber first = new Subscriber();
+        final Subscriber second = new Subscriber();
+
+        final AuthenticationCoordinator.Flight flight = first.join(config);
+        assertNotNull(flight);
+        assertNull(second.join(config));
+
+        flight.getCallback().onAuthenticationFailed();
+        flight.getCallback().onAuthenticationSucceeded();
+        assertEquals("failed succeeded ", first.events);
+        assertEquals("failed succeeded ", second.events);
+        assertEquals(SessionState.SUCCEEDED, second.session.getState());
+    }
+
+    @Test
+    public void join_afterCanceledFlight_startsNewFlight() {
+        final CipherConfig config = config("canceled");
+        final Subscriber first = new Subscriber();
+        final AuthenticationCoordinator.Flight flight = first.join(config);
+        assertNotNull(flight);
+
+        first.session.cancel();
+        assertFalse(flight.getSession().isActive());
+
+        final Subscriber second = new Subscriber();
+        final AuthenticationCoordinator.Flight next = second.join(config);
+        assertNotNull(next);
+        assertNotSame(flight, next);
+        assertEquals("", first.events);
+    }
+
+    @Test
+    public void join_afterDialogReleasedWithoutResult_startsNewFlight() {
+        final CipherConfig config = config("released");
+        final Subscriber first = new Subscriber();
+        final AuthenticationCoordinator.Flight flight = first.join(config);
+        assertNotNull(flight);
+
+        // dialog of the flight is gone, e.g. it was not recreated after a configuration change
+        final SensorSession sensorSession = SensorSession.create(flight.getCallback(), null, null);
+        sensorSession.release();
+        assertEquals("canceled ", first.events);
+
+        final Subscriber second = new Subscriber();
+        final AuthenticationCoordinator.Flight next = second.join(config);
+        assertNotNull(next);
+        assertNotSame(flight, next);
+    }
+
+    @Test
+    public void join_afterFlightSessionClosed_startsNewFlight() {
+        final CipherConfig config = config("closed");
+        final Subscriber first = new Subscriber();
+        final AuthenticationCoordinator.Flight flight = first.join(config);
+        assertNotNull(flight);
+
+        // dialog of the flight stopped without notifying it
+        flight.getSession().cancel();
+
+        final Subscriber second = new Subscriber();
+        assertNotNull(second.join(config));
+    }
+
+    @Test
+    public void unsubscribe_lastSubscriber_cancelsDialog() {
+        final CipherConfig config = config("unsubscribe");
+        final Subscriber first = new Subscriber();
+        final Subscriber second = new Subscriber();
+        final AuthenticationCoordinator.Flight flight = first.join(config);
+        assertNotNull(flight);
+        assertNull(second.join(config));
+
+        final boolean[] isCanceled = {false};
+        flight.getSession().setCanceller(new AuthenticationSession.Canceller() {
+            @Override
+            public void cancel() {
+                isCanceled[0] = true;
+            }
+        });
+
+        first.session.cancel();
+        assertFalse(isCanceled[0]);
+        assertTrue(flight.getSession().isActive());
+
+        second.session.cancel();
+        assertTrue(isCanceled[0]);
+        assertEquals("", second.events);
+    }
+
+    private static CipherConfig config(final String keyName) {
+        return new CipherConfig(keyName, 0, CipherMode.CBC_PKCS7, null);
+    }
+
+    /**
+     * Subscriber recording the events it is notified with.
+     */
+    private static final class Subscriber implements AuthenticationCallback {
+        final AuthenticationSession session = new AuthenticationSession(0);
+
+        String events = "";
+
+        @Nullable
+        AuthenticationCoordinator.Flight join(final CipherConfig config) {
+            return AuthenticationCoordinator.join(config, session.wrap(this), session,
+                    new AuthenticationTrace(null));
+        }
+
+        @Override
+        public void fingerprintAuthenticationNotSupported() {
+            events += "notSupported ";
+        }
+
+        @Override
+        public void noEnrolledFingerprints() {
+            events += "noEnrolled ";
+        }
+
+        @Override
+        public void authenticationCanceledByUser() {
+            events += "canceled ";
+        }
+
+        @Override
+        public void onAuthenticationError(final int code, @Nullable final CharSequence error) {
+            events += "error" + code + " ";
+        }
+
+        @Override
+        public void onAuthenticationHelp(final int code, @Nullable final CharSequence help) {
+            events += "help ";
+        }
+
+        @Override
+        public void onAuthenticationFailed() {
+            events += "failed ";
+        }
+
+        @Override
+        public void onAuthenticationSucceeded() {
+            events += "succeeded ";
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.cengizb.fingerprintdialog;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.Locale;
+
+import javax.crypto.Cipher;
+
+/**
+ * Created by cengizb on 18.10.2026
+ * <p>
+ * Compares throughput of {@link CipherMode#CBC_PKCS7} and {@link CipherMode#GCM} through
+ * {@link CipherStream} on the JVM, for payload sizes from tokens to offline caches.
+ * <p>
+ * Ciphers are created by {@link FingerprintKeyManager} with {@link SoftwareKeyProvider}, so key
+ * lookup and cipher pooling are measured together with the cipher. Software AES of the JVM is
+ * used instead of AndroidKeyStore, so results show the relative cost of the modes, not the
+ * absolute throughput on device.
+ * <p>
+ * GCM decryption of payloads larger than {@link CipherStream#MAX_GCM_PAYLOAD_SIZE} is refused by
+ * {@link CipherStream}, it is reported as "refused". Largest payloads are kept in the heap with
+ * their ciphertext, run with a large enough heap:
+ * <pre>
+ * java -Xmx1g -cp &lt;test classpath&gt; com.cengizb.fingerprintdialog.CipherModeBenchmark
+ * </pre>
+ *
+ * @author <a href="https://github.com/cengizbayrak">cengizb</a>
+ */
+public class CipherModeBenchmark {
+    private static final int[] PAYLOAD_SIZES = {1024, 64 * 1024, 1024 * 1024, 16 * 1024 * 1024,
+            64 * 1024 * 1024, 100 * 1024 * 1024};
+
+    // bytes processed per measurement, smaller payloads are repeated
+    private static final long BYTES_PER_RUN = 32L * 1024 * 1024;
+
+    private static final int WARM_UP_RUNS = 1;
+    private static final int MEASURED_RUNS = 3;
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    public static void main(final String[] args) throws Exception {
+        FingerprintKeyManager.setKeyProvider(new SoftwareKeyProvider());
+
+        System.out.println(String.format(Locale.US, "%-12s %10s %14s %14s",
+                "mode", "payload", "encrypt MB/s", "decrypt MB/s"));
+        for (int size : PAYLOAD_SIZES) {
+            final byte[] payload = new byte[size];
+            RANDOM.nextBytes(payload);
+
+            for (int cipherMode : new int[]{CipherMode.CBC_PKCS7, CipherMode.GCM}) {
+                final FingerprintKeyManager keyManager = new FingerprintKeyManager(
+                        "benchmark", 0, cipherMode);
+                final double encrypt = measure(keyManager, payload, true);
+                final String decrypt = cipherMode == CipherMode.GCM
+                        && size > CipherStream.MAX_GCM_PAYLOAD_SIZE
+                        ? "refused"
+                        : String.format(Locale.US, "%.1f", measure(keyManager, payload, false));
+                System.out.println(String.format(Locale.US, "%-12s %10s %14.1f %14s",
+                        CipherConfig.blockMode(cipherMode), formatSize(size), encrypt, decrypt));
+            }
+        }
+    }
+
+    /**
+     * Measure throughput of one mode and payload size.
+     *
+     * @return best throughput of the measured runs in MB/s
+     */
+    private static double measure(final FingerprintKeyManager keyManager,
+                                  final byte[] payload,
+                                  final boolean encrypt) throws Exception {
+        // encrypted payload and its iv for decryption
+        final Cipher encryptCipher = keyManager.createCipherOrThrow(null);
+        final byte[] iv = encryptCipher.getIV();
+        final byte[] input = encrypt ? payload : encryptCipher.doFinal(payload);
+        FingerprintKeyManager.releaseCipher(encryptCipher);
+
+        final int iterations = (int) Math.max(1, BYTES_PER_RUN / payload.length);
+        double best = 0;
+        for (int run = 0; run < WARM_UP_RUNS + MEASURED_RUNS; run++) {
+            final long start = System.nanoTime();
+            for (int i = 0; i < iterations; i++) {
+                process(keyManager.createCipherOrThrow(encrypt ? null : iv), input);
+            }
+            final double seconds = (System.nanoTime() - start) / 1e9;
+            if (run >= WARM_UP_RUNS) {
+                best = Math.max(best, (double) iterations * payload.length / (1024 * 1024) / seconds);
+            }
+        }
+        return best;
+    }
+
+    private static void process(final Cipher cipher, final byte[] input) throws Exception {
+        final CipherStream stream = new CipherStream(cipher,
+                Math.min(input.length, CipherStream.DEFAULT_BUFFER_SIZE));
+        try {
+            stream.process(new ByteArrayInputStream(input), NULL_OUTPUT);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        } finally {
+            stream.release();
+        }
+    }
+
+    private static String formatSize(final int size) {
+        return size >= 1024 * 1024
+                ? size / (1024 * 1024) + " MB"
+                : size / 1024 + " KB";
+    }
+
+    // discards output, so only the cipher is measured
+    private static final OutputStream NULL_OUTPUT = new ByteArrayOutputStream() {
+        @Override
+        public void write(final byte[] b, final int off, final int len) {
+            // discard
+        }
+    };
+}
@@ -0,0 +1,117 @@
+package com.cengizb.fingerprintdialog;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import javax.crypto.Cipher;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Created by cengizb on 18.10.2026
+ * <p>
+ * Borrowing and returning ciphers of {@link CipherPool}, directly and through
+ * {@link FingerprintKeyManager} with {@link SoftwareKeyProvider}.
+ *
+ * @author <a href="https://github.com/cengizbayrak">cengizb</a>
+ */
+public class CipherPoolTest {
+    private static final String CBC = "AES/CBC/PKCS5Padding";
+    private static final String GCM = "AES/GCM/NoPadding";
+
+    private byte[] payload;
+
+    @Before
+    public void setUp() {
+        FingerprintKeyManager.setKeyProvider(new SoftwareKeyProvider());
+        payload = new byte[100];
+        new Random(payload.length).nextBytes(payload);
+    }
+
+    @Test
+    public void acquire_afterRelease_reusesCipher() throws Exception {
+        final CipherPool pool = new CipherPool();
+        final Cipher cipher = pool.acquire(CBC);
+        pool.release(cipher);
+
+        assertSame(cipher, pool.acquire(CBC));
+        assertNotSame(cipher, pool.acquire(CBC));
+    }
+
+    @Test
+    public void acquire_otherTransformation_doesNotReuseCipher() throws Exception {
+        final CipherPool pool = new CipherPool();
+        final Cipher cbc = pool.acquire(CBC);
+        pool.release(cbc);
+
+        final Cipher gcm = pool.acquire(GCM);
+        assertNotSame(cbc, gcm);
+        assertEquals(GCM, gcm.getAlgorithm());
+        assertSame(cbc, pool.acquire(CBC));
+    }
+
+    @Test
+    public void release_twice_pooledOnce() throws Exception {
+        final CipherPool pool = new CipherPool();
+        final Cipher cipher = pool.acquire(CBC);
+        pool.release(cipher);
+        pool.release(cipher);
+
+        assertSame(cipher, pool.acquire(CBC));
+        assertNotSame(cipher, pool.acquire(CBC));
+    }
+
+    @Test
+    public void releasedCipher_reusedByOtherKey_decryptsWithThatKey() throws Exception {
+        final FingerprintKeyManager first = new FingerprintKeyManager("first", 0, CipherMode.CBC_PKCS7);
+        final FingerprintKeyManager second = new FingerprintKeyManager("second", 0, CipherMode.CBC_PKCS7);
+
+        final Cipher secondEncrypt = second.createCipherOrThrow(null);
+        final byte[] iv = secondEncrypt.getIV();
+        final byte[] encrypted = secondEncrypt.doFinal(payload);
+        FingerprintKeyManager.releaseCipher(secondEncrypt);
+
+        // borrowed by the first key and returned in the middle of an operation
+        final Cipher firstEncrypt = first.createCipherOrThrow(null);
+        assertSame(secondEncrypt, firstEncrypt);
+        firstEncrypt.update(payload, 0, 50);
+        FingerprintKeyManager.releaseCipher(firstEncrypt);
+
+        final Cipher secondDecrypt = second.createCipherOrThrow(iv);
+        assertSame(firstEncrypt, secondDecrypt);
+        assertArrayEquals(payload, secondDecrypt.doFinal(encrypted));
+        FingerprintKeyManager.releaseCipher(secondDecrypt);
+    }
+
+    @Test
+    public void releasedCipher_reusedByOtherMode_isNotShared() throws Exception {
+        final FingerprintKeyManager cbc = new FingerprintKeyManager("shared", 0, CipherMode.CBC_PKCS7);
+        final FingerprintKeyManager gcm = new FingerprintKeyManager("shared", 0, CipherMode.GCM);
+
+        final Cipher cbcCipher = cbc.createCipherOrThrow(null);
+        FingerprintKeyManager.releaseCipher(cbcCipher);
+
+        final Cipher gcmEncrypt = gcm.createCipherOrThrow(null);
+        assertNotSame(cbcCipher, gcmEncrypt);
+        final byte[] iv = gcmEncrypt.getIV();
+        final byte[] encrypted = gcmEncrypt.doFinal(payload);
+        FingerprintKeyManager.releaseCipher(gcmEncrypt);
+
+        // every encryption gets a fresh iv, even on a reused cipher
+        final Cipher gcmAgain = gcm.createCipherOrThrow(null);
+        assertSame(gcmEncrypt, gcmAgain);
+        assertFalse(Arrays.equals(iv, gcmAgain.getIV()));
+        FingerprintKeyManager.releaseCipher(gcmAgain);
+
+        final Cipher gcmDecrypt = gcm.createCipherOrThrow(iv);
+        assertArrayEquals(payload, gcmDecrypt.doFinal(encrypted));
+        FingerprintKeyManager.releaseCipher(gcmDecrypt);
+    }
+}
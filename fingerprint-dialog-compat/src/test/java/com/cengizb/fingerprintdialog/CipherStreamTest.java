@@ -0,0 +1,199 @@
+package com.cengizb.fingerprintdialog;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.security.GeneralSecurityException;
+import java.util.Arrays;
+import java.util.Random;
+
+import javax.crypto.AEADBadTagException;
+import javax.crypto.Cipher;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+/**
+ * Created by cengizb on 18.10.2026
+ * <p>
+ * Round trips of {@link CipherStream} with ciphers created by {@link FingerprintKeyManager} on
+ * the JVM, keys come from {@link SoftwareKeyProvider}.
+ *
+ * @author <a href="https://github.com/cengizbayrak">cengizb</a>
+ */
+public class CipherStreamTest {
+    // not a multiple of the buffer or block size, so the last chunk is partial
+    private static final int PAYLOAD_SIZE = 3 * 1024 + 7;
+
+    private static final int BUFFER_SIZE = 1024;
+
+    private byte[] payload;
+
+    @Before
+    public void setUp() {
+        FingerprintKeyManager.setKeyProvider(new SoftwareKeyProvider());
+        payload = new byte[PAYLOAD_SIZE];
+        new Random(PAYLOAD_SIZE).nextBytes(payload);
+    }
+
+    @Test
+    public void cbc_roundTrip_restoresPayload() throws Exception {
+        assertRoundTrip(new FingerprintKeyManager("cbc", 0, CipherMode.CBC_PKCS7));
+    }
+
+    @Test
+    public void gcm_roundTrip_restoresPayload() throws Exception {
+        assertRoundTrip(new FingerprintKeyManager("gcm", 0, CipherMode.GCM));
+    }
+
+    @Test
+    public void gcm_roundTripThroughChannels_restoresPayload() throws Exception {
+        final FingerprintKeyManager keyManager = new FingerprintKeyManager("gcm", 0, CipherMode.GCM);
+
+        final CipherStream encrypt = new CipherStream(keyManager.createCipherOrThrow(null), BUFFER_SIZE);
+        final byte[] iv = encrypt.getIv();
+        final ByteArrayOutputStream encrypted = new ByteArrayOutputStream();
+        encrypt.process(Channels.newChannel(new ByteArrayInputStream(payload)),
+                Channels.newChannel(encrypted));
+        encrypt.release();
+
+        final CipherStream decrypt = new CipherStream(keyManager.createCipherOrThrow(iv), BUFFER_SIZE);
+        final ByteArrayOutputStream decrypted = new ByteArrayOutputStream();
+        decrypt.process(Channels.newChannel(new ByteArrayInputStream(encrypted.toByteArray())),
+                Channels.newChannel(decrypted));
+        decrypt.release();
+
+        assertArrayEquals(payload, decrypted.toByteArray());
+    }
+
+    @Test
+    public void gcm_tamperedTag_failsDecryption() throws Exception {
+        final FingerprintKeyManager keyManager = new FingerprintKeyManager("gcm", 0, CipherMode.GCM);
+        final Cipher encryptCipher = keyManager.createCipherOrThrow(null);
+        final byte[] iv = encryptCipher.getIV();
+        final byte[] encrypted = process(new CipherStream(encryptCipher, BUFFER_SIZE), payload);
+
+        // tag is appended to the ciphertext
+        encrypted[encrypted.length - 1] ^= 1;
+
+        final ByteArrayOutputStream decrypted = new ByteArrayOutputStream();
+        try {
+            new CipherStream(keyManager.createCipherOrThrow(iv), BUFFER_SIZE)
+                    .process(new ByteArrayInputStream(encrypted), decrypted);
+            fail("Tampered ciphertext is decrypted.");
+        } catch (AEADBadTagException expected) {
+            // authentication tag does not match
+        }
+        assertEquals(0, decrypted.size());
+    }
+
+    @Test
+    public void gcm_tamperedCiphertext_failsDecryption() throws Exception {
+        final FingerprintKeyManager keyManager = new FingerprintKeyManager("gcm", 0, CipherMode.GCM);
+        final Cipher encryptCipher = keyManager.createCipherOrThrow(null);
+        final byte[] iv = encryptCipher.getIV();
+        final byte[] encrypted = process(new CipherStream(encryptCipher, BUFFER_SIZE), payload);
+
+        encrypted[0] ^= 1;
+
+        try {
+            process(new CipherStream(keyManager.createCipherOrThrow(iv), BUFFER_SIZE), encrypted);
+            fail("Tampered ciphertext is decrypted.");
+        } catch (AEADBadTagException expected) {
+            // authentication tag does not match
+        }
+    }
+
+    @Test
+    public void gcm_payloadOverLimit_refusesDecryption() throws Exception {
+        final FingerprintKeyManager keyManager = new FingerprintKeyManager("gcm", 0, CipherMode.GCM);
+        final Cipher encryptCipher = keyManager.createCipherOrThrow(null);
+        final byte[] iv = encryptCipher.getIV();
+        final byte[] encrypted = encryptCipher.doFinal(new byte[CipherStream.MAX_GCM_PAYLOAD_SIZE + 1]);
+        FingerprintKeyManager.releaseCipher(encryptCipher);
+
+        final CipherStream decrypt = new CipherStream(keyManager.createCipherOrThrow(iv));
+        final ByteArrayOutputStream decrypted = new ByteArrayOutputStream();
+        try {
+            decrypt.process(new ByteArrayInputStream(encrypted), decrypted);
+            fail("GCM payload over the limit is decrypted.");
+        } catch (IOException expected) {
+            // whole payload would be held in the heap
+        } finally {
+            decrypt.release();
+        }
+        assertEquals(0, decrypted.size());
+    }
+
+    @Test
+    public void gcm_encryptionOverLimit_isStreamed() throws Exception {
+        final FingerprintKeyManager keyManager = new FingerprintKeyManager("gcm", 0, CipherMode.GCM);
+        final CipherStream encrypt = new CipherStream(keyManager.createCipherOrThrow(null));
+        final byte[] encrypted = process(encrypt, new byte[CipherStream.MAX_GCM_PAYLOAD_SIZE + 1]);
+        encrypt.release();
+
+        // payload and 16 byte tag
+        assertEquals(CipherStream.MAX_GCM_PAYLOAD_SIZE + 1 + 16, encrypted.length);
+    }
+
+    @Test
+    public void process_afterFinished_throws() throws Exception {
+        final FingerprintKeyManager keyManager = new FingerprintKeyManager("cbc", 0, CipherMode.CBC_PKCS7);
+        final CipherStream stream = new CipherStream(keyManager.createCipherOrThrow(null), BUFFER_SIZE);
+        process(stream, payload);
+
+        try {
+            stream.doFinal(ByteBuffer.allocate(0), ByteBuffer.allocate(BUFFER_SIZE));
+            fail("Finished cipher is used again.");
+        } catch (IllegalStateException expected) {
+            // one operation per stream
+        }
+    }
+
+    @Test
+    public void release_twice_returnsCipherOnce() throws Exception {
+        final FingerprintKeyManager keyManager = new FingerprintKeyManager("cbc", 0, CipherMode.CBC_PKCS7);
+        final CipherStream stream = new CipherStream(keyManager.createCipherOrThrow(null), BUFFER_SIZE);
+        stream.release();
+
+        // new owner borrows the cipher before the stream is released again
+        final Cipher owner = keyManager.createCipherOrThrow(null);
+        assertSame(stream.getCipher(), owner);
+        stream.release();
+
+        assertNotSame(owner, keyManager.createCipherOrThrow(null));
+    }
+
+    private void assertRoundTrip(final FingerprintKeyManager keyManager) throws Exception {
+        final CipherStream encrypt = new CipherStream(keyManager.createCipherOrThrow(null), BUFFER_SIZE);
+        final byte[] iv = encrypt.getIv();
+        assertNotNull(iv);
+        final byte[] encrypted = process(encrypt, payload);
+        encrypt.release();
+        assertFalse(Arrays.equals(payload, Arrays.copyOf(encrypted, payload.length)));
+
+        final CipherStream decrypt = new CipherStream(keyManager.createCipherOrThrow(iv), BUFFER_SIZE);
+        final byte[] decrypted = process(decrypt, encrypted);
+        decrypt.release();
+
+        assertArrayEquals(payload, decrypted);
+    }
+
+    private static byte[] process(final CipherStream stream, final byte[] input)
+            throws IOException, GeneralSecurityException {
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        final long written = stream.process(new ByteArrayInputStream(input), output);
+        assertEquals(written, output.size());
+        return output.toByteArray();
+    }
+}
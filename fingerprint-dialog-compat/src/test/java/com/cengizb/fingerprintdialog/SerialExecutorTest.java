@@ -0,0 +1,183 @@
+package com.cengizb.fingerprintdialog;
+
+import org.junit.Test;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Created by cengizb on 18.10.2026
+ * <p>
+ * Ordering and failure handling of {@link SerialExecutor}.
+ *
+ * @author <a href="https://github.com/cengizbayrak">cengizb</a>
+ */
+public class SerialExecutorTest {
+    private static final int TASK_COUNT = 1000;
+
+    @Test
+    public void execute_onThreadPool_keepsOrder() throws Exception {
+        final ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            final SerialExecutor executor = new SerialExecutor(pool);
+            final List<Integer> order = Collections.synchronizedList(new ArrayList<Integer>());
+            final CountDownLatch done = new CountDownLatch(TASK_COUNT);
+            for (int i = 0; i < TASK_COUNT; i++) {
+                final int index = i;
+                executor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        order.add(index);
+                        done.countDown();
+                    }
+                });
+            }
+
+            assertTrue(done.await(10, TimeUnit.SECONDS));
+            for (int i = 0; i < TASK_COUNT; i++) {
+                assertEquals(i, (int) order.get(i));
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void execute_afterThrowingTask_runsNextTask() {
+        // runs tasks like a thread pool, which keeps the exception of a task to itself
+        final Executor swallowing = new Executor() {
+            @Override
+            public void execute(final Runnable task) {
+                try {
+                    task.run();
+                } catch (RuntimeException e) {
+                    // reported by the pool
+                }
+            }
+        };
+        final SerialExecutor executor = new SerialExecutor(swallowing);
+        final List<String> runs = new ArrayList<>();
+
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                runs.add("first");
+                throw new IllegalStateException();
+            }
+        });
+        executor.execute(new Recording(runs, "second"));
+
+        assertEquals(2, runs.size());
+        assertEquals("second", runs.get(1));
+    }
+
+    @Test
+    public void execute_afterRejectedTask_runsNextTask() {
+        final RejectingExecutor rejecting = new RejectingExecutor();
+        final SerialExecutor executor = new SerialExecutor(rejecting);
+        final List<String> runs = new ArrayList<>();
+
+        rejecting.isRejecting = true;
+        try {
+            executor.execute(new Recording(runs, "rejected"));
+            fail("Rejection is not thrown.");
+        } catch (RejectedExecutionException expected) {
+            // task is dropped
+        }
+
+        rejecting.isRejecting = false;
+        executor.execute(new Recording(runs, "accepted"));
+
+        assertEquals(1, runs.size());
+        assertEquals("accepted", runs.get(0));
+    }
+
+    @Test
+    public void finishedTask_nextTaskRejected_runsTaskAfterIt() {
+        final DeferringExecutor deferring = new DeferringExecutor(2);
+        final SerialExecutor executor = new SerialExecutor(deferring);
+        final List<String> runs = new ArrayList<>();
+
+        executor.execute(new Recording(runs, "first"));
+        executor.execute(new Recording(runs, "second"));
+        executor.execute(new Recording(runs, "third"));
+
+        // first task schedules the second from the worker thread, which is rejected
+        deferring.runNext();
+        deferring.runNext();
+
+        assertEquals(2, runs.size());
+        assertEquals("first", runs.get(0));
+        assertEquals("third", runs.get(1));
+        assertTrue(deferring.tasks.isEmpty());
+    }
+
+    /**
+     * Keeps tasks until the test runs them, rejects the task of the given call.
+     */
+    private static final class DeferringExecutor implements Executor {
+        final Queue<Runnable> tasks = new ArrayDeque<>();
+
+        private final int rejectedCall;
+
+        private int calls = 0;
+
+        DeferringExecutor(final int rejectedCall) {
+            this.rejectedCall = rejectedCall;
+        }
+
+        @Override
+        public void execute(final Runnable task) {
+            if (++calls == rejectedCall) throw new RejectedExecutionException();
+            tasks.offer(task);
+        }
+
+        void runNext() {
+            tasks.remove().run();
+        }
+    }
+
+    /**
+     * Runs tasks on the calling thread, or rejects them.
+     */
+    private static final class RejectingExecutor implements Executor {
+        boolean isRejecting = false;
+
+        @Override
+        public void execute(final Runnable task) {
+            if (isRejecting) throw new RejectedExecutionException();
+            task.run();
+        }
+    }
+
+    /**
+     * Records its name once it runs.
+     */
+    private static final class Recording implements Runnable {
+        private final List<String> runs;
+        private final String name;
+
+        Recording(final List<String> runs, final String name) {
+            this.runs = runs;
+            this.name = name;
+        }
+
+        @Override
+        public void run() {
+            runs.add(name);
+        }
+    }
+}